@@ -0,0 +1,40 @@
+package com.justlife.benchmark;
+
+import com.justlife.dto.ProfessionalFreeSlots;
+import com.justlife.model.CleaningProfessional;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability checks on a day of the booking history, as done by GET /bookings/availability.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    @Benchmark
+    public List<CleaningProfessional> availabilityByDate(FleetState fleet) {
+        return fleet.availabilityCheckService.checkAvailabilityByDate(fleet.randomDay(), 3);
+    }
+
+    @Benchmark
+    public List<CleaningProfessional> availabilityByDateTime(FleetState fleet) {
+        return fleet.availabilityCheckService.checkAvailabilityByDateTime(fleet.randomStart(), 2, 3);
+    }
+
+    @Benchmark
+    public List<ProfessionalFreeSlots> freeSlots(FleetState fleet) {
+        return fleet.availabilityCheckService.findFreeSlots(fleet.randomDay());
+    }
+}
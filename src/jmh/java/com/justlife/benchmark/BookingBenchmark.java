@@ -0,0 +1,50 @@
+package com.justlife.benchmark;
+
+import com.justlife.dto.BookingDetailPage;
+import com.justlife.model.Booking;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking creation and the vehicle-filtered booking listing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingBenchmark {
+
+    /**
+     * Books a random slot of the history. Busy days reject most requests, which is measured too since rejecting
+     * takes the same availability checks.
+     */
+    @Benchmark
+    public Object createBooking(FleetState fleet) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Booking booking = new Booking();
+        booking.setStartTime(fleet.randomStart());
+        booking.setDuration(random.nextBoolean() ? 2 : 4);
+        booking.setProfessionalsRequired(1 + random.nextInt(3));
+        try {
+            return fleet.bookingService.createBooking(booking);
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public BookingDetailPage bookingsOfVehicle(FleetState fleet) {
+        LocalDate from = fleet.randomDay();
+        return fleet.bookingService.getBookingDetails(from, from.plusDays(6), null, fleet.randomVehicleId(), null, 50);
+    }
+}
@@ -0,0 +1,100 @@
+package com.justlife.benchmark;
+
+import com.justlife.JustlifeServiceApplication;
+import com.justlife.service.AvailabilityCheckService;
+import com.justlife.service.BookingService;
+import com.justlife.service.ProfessionalScheduleIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The application running on an embedded H2 database loaded with a {@link SyntheticFleet}, shared by the benchmarks
+ * of a trial.
+ */
+@State(Scope.Benchmark)
+public class FleetState {
+
+    @Param({"100", "1000", "10000"})
+    public int professionals;
+
+    @Param({"10000", "100000", "1000000"})
+    public int bookings;
+
+    /**
+     * Where availability is answered from: "index" for the in-memory schedule index, "database" for the SQL query.
+     */
+    @Param({"index"})
+    public String availabilitySource;
+
+    /**
+     * Size of the availability cache, 0 to measure every check.
+     */
+    @Param({"0"})
+    public int cacheSize;
+
+    public AvailabilityCheckService availabilityCheckService;
+    public BookingService bookingService;
+    public int days;
+    public int vehicles;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JustlifeServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--justlife.availability.query-database=" + "database".equals(availabilitySource),
+                        "--justlife.availability.cache.max-size=" + cacheSize);
+
+        SyntheticFleet fleet = new SyntheticFleet(professionals, bookings, 42);
+        days = fleet.generate(context.getBean(JdbcTemplate.class));
+        vehicles = fleet.vehicles();
+        context.getBean(ProfessionalScheduleIndex.class).load();
+
+        availabilityCheckService = context.getBean(AvailabilityCheckService.class);
+        bookingService = context.getBean(BookingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * A day of the booking history.
+     */
+    public LocalDate randomDay() {
+        return SyntheticFleet.FIRST_DAY.plusDays(ThreadLocalRandom.current().nextInt(days));
+    }
+
+    /**
+     * A start time on a day of the booking history, on the half hour between 08:00 and 18:00.
+     */
+    public LocalDateTime randomStart() {
+        return randomDay().atTime(8, 0).plusMinutes(30L * ThreadLocalRandom.current().nextInt(21));
+    }
+
+    public long randomVehicleId() {
+        return 1 + ThreadLocalRandom.current().nextInt(vehicles);
+    }
+}
@@ -1,11 +1,24 @@
 package com.justlife;
 
+import com.justlife.config.JustlifeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
-@SpringBootApplication
+/**
+ * The booking service, on Spring MVC and JPA. The R2DBC auto-configuration is left out so that building with the
+ * reactive profile, which puts R2DBC on the classpath for {@code com.justlife.reactive}, does not add a second
+ * transaction manager.
+ */
+@SpringBootApplication(excludeName = {
+        "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration",
+        "org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration",
+        "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration",
+        "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration"
+})
 @EnableJpaRepositories
+@ImportRuntimeHints(JustlifeRuntimeHints.class)
 public class JustlifeServiceApplication {
 
     public static void main(String[] args) {
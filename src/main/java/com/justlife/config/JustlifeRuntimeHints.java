@@ -0,0 +1,57 @@
+package com.justlife.config;
+
+import com.justlife.repository.BookingDetailRepository;
+import com.justlife.service.AllocationMode;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.projection.TargetAware;
+
+/**
+ * Reflection and proxy hints for the native image, beyond what Spring, Spring Data, Hibernate and springdoc contribute
+ * on their own. Registered while the application is processed ahead of time, never at runtime.
+ * <ul>
+ *     <li>The entities and DTOs, including the nested id classes: Lombok generates their accessors at compile time, but
+ *     Jackson, Hibernate and springdoc find them, the fields and their {@code @Schema} annotations by reflection.</li>
+ *     <li>The interface projections of the repositories, implemented by JDK proxies.</li>
+ *     <li>The enums bound from properties.</li>
+ * </ul>
+ */
+public class JustlifeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String[] REFLECTED_PACKAGES = {"com.justlife.model", "com.justlife.dto"};
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            // Interfaces, records and nested id classes too, not only concrete top-level classes
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return true;
+            }
+        };
+        scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+        for (String basePackage : REFLECTED_PACKAGES) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                hints.reflection().registerType(TypeReference.of(candidate.getBeanClassName()),
+                        MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+        }
+
+        for (Class<?> projection : new Class<?>[]{BookingDetailRepository.ScheduledBooking.class}) {
+            hints.proxies().registerJdkProxy(projection, TargetAware.class, SpringProxy.class, DecoratingProxy.class);
+            hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        hints.reflection().registerType(AllocationMode.class, MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS);
+    }
+}
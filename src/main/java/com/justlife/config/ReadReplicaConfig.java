@@ -0,0 +1,70 @@
+package com.justlife.config;
+
+import com.justlife.service.ReadReplicaRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions that opt in through {@link ReadReplicaRouter} to a read replica, everything else to the
+ * primary configured with {@code spring.datasource.*}. Only active when {@code justlife.datasource.replica.url} is set.
+ * <p>
+ * The connection of a transaction is only taken from a pool when its first statement runs, once the transaction is
+ * known to be read-only and the service has chosen where to read from.
+ */
+@Configuration
+@ConditionalOnProperty("justlife.datasource.replica.url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("justlife.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${justlife.datasource.replica.url}") String url,
+                                              @Value("${justlife.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${justlife.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReadReplicaRouter readReplicaRouter) {
+        AbstractRoutingDataSource readOnlyDataSource = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return readReplicaRouter.isReplicaSelected() ? "replica" : "primary";
+            }
+        };
+        readOnlyDataSource.setTargetDataSources(Map.of("primary", primaryDataSource, "replica", replicaDataSource));
+        readOnlyDataSource.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(readOnlyDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,40 @@
+package com.justlife.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while counting is started, so the statements
+ * of a single request can be told apart from the global Hibernate statistics. A batched statement counts once
+ * however many rows it carries.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    /**
+     * Starts counting the statements of the current thread from zero.
+     */
+    public void start() {
+        count.set(new int[1]);
+    }
+
+    /**
+     * Stops counting the statements of the current thread.
+     *
+     * @return the number of statements prepared since counting started, or 0 if it was not started
+     */
+    public int stop() {
+        int[] statements = count.get();
+        count.remove();
+        return statements != null ? statements[0] : 0;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] statements = count.get();
+        if (statements != null) {
+            statements[0]++;
+        }
+        return sql;
+    }
+}
@@ -1,14 +1,20 @@
 package com.justlife.controller;
 
+import com.justlife.dto.AvailabilityQuery;
+import com.justlife.dto.AvailabilityQueryResult;
+import com.justlife.dto.AvailableProfessional;
+import com.justlife.dto.BookingBatchResult;
+import com.justlife.dto.BookingDetailPage;
+import com.justlife.dto.ProfessionalFreeSlots;
 import com.justlife.model.Booking;
-import com.justlife.model.BookingDetail;
-import com.justlife.model.CleaningProfessional;
 import com.justlife.service.AvailabilityCheckService;
 import com.justlife.service.BookingService;
+import com.justlife.service.WeeklyShiftCalendar;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -18,6 +24,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/bookings")
@@ -29,13 +36,22 @@ public class BookingController {
     @Autowired
     private AvailabilityCheckService availabilityCheckService;
 
+    @Value("${justlife.booking.batch-max-size:500}")
+    private int batchMaxSize = 500;
+
+    @Value("${justlife.availability.bulk-max-size:500}")
+    private int bulkMaxSize = 500;
+
+    @Value("${justlife.booking.page-max-size:500}")
+    private int pageMaxSize = 500;
+
     @Operation(summary = "Check availability of cleaning professionals", description = "Returns a list of available cleaning professionals based on the given date and time parameters.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved list of available professionals"),
             @ApiResponse(responseCode = "400", description = "Invalid input parameters")
     })
     @GetMapping("/availability")
-    public List<CleaningProfessional> checkAvailability(@RequestParam String date, @RequestParam(required = false) String startTime, @RequestParam(required = false) Integer duration, @RequestParam(required = false) Integer professionalsRequired) {
+    public List<AvailableProfessional> checkAvailability(@RequestParam String date, @RequestParam(required = false) String startTime, @RequestParam(required = false) Integer duration, @RequestParam(required = false) Integer professionalsRequired) {
         try {
             DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
             LocalDate parsedDate = LocalDate.parse(date, dateFormatter);
@@ -52,18 +68,54 @@ public class BookingController {
 
             if (startTime == null || duration == null || professionalsRequired == null) {
                 // Only date provided
-                return availabilityCheckService.checkAvailabilityByDate(parsedDate, professionalsRequired != null ? professionalsRequired : 1);
+                return availabilityCheckService.checkAvailabilityByDate(parsedDate, professionalsRequired != null ? professionalsRequired : 1).stream()
+                        .map(AvailableProfessional::of)
+                        .collect(Collectors.toList());
             } else {
                 // Date, startTime, duration, and professionalsRequired provided
                 DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
                 LocalDateTime parsedStartTime = LocalDateTime.parse(startTime, dateTimeFormatter);
-                return availabilityCheckService.checkAvailabilityByDateTime(parsedStartTime, duration, professionalsRequired != null ? professionalsRequired : 1);
+                if (!WeeklyShiftCalendar.isSlotStart(parsedStartTime)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid booking start time. Must be on the hour or half hour.");
+                }
+                return availabilityCheckService.checkAvailabilityByDateTime(parsedStartTime, duration, professionalsRequired != null ? professionalsRequired : 1).stream()
+                        .map(AvailableProfessional::of)
+                        .collect(Collectors.toList());
             }
         } catch (DateTimeParseException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date format", e);
         }
     }
 
+    @Operation(summary = "Check availability for several queries", description = "Answers several availability checks, each with the parameters of GET /bookings/availability, against a single snapshot of the professionals and their bookings, and reports the result of each of them.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully answered the queries, see the result of each query"),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized list of queries")
+    })
+    @PostMapping("/availability/bulk")
+    public List<AvailabilityQueryResult> checkAvailability(@RequestBody List<AvailabilityQuery> queries) {
+        if (queries.isEmpty() || queries.size() > bulkMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid number of queries. Must be between 1 and " + bulkMaxSize + ".");
+        }
+
+        return availabilityCheckService.checkAvailability(queries);
+    }
+
+    @Operation(summary = "List free start times", description = "Returns, for each cleaning professional with free time on the given date, the times a 2 or 4 hour booking can start at.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the free start times"),
+            @ApiResponse(responseCode = "400", description = "Invalid input parameters")
+    })
+    @GetMapping("/availability/slots")
+    public List<ProfessionalFreeSlots> findFreeSlots(@RequestParam String date) {
+        try {
+            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+            return availabilityCheckService.findFreeSlots(LocalDate.parse(date, dateFormatter));
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date format", e);
+        }
+    }
+
     @Operation(summary = "Create a new booking", description = "Creates a new booking for cleaning services.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully created booking"),
@@ -81,6 +133,20 @@ public class BookingController {
         return bookingService.createBooking(booking);
     }
 
+    @Operation(summary = "Create several bookings", description = "Creates several bookings for cleaning services in a single transaction and reports the outcome of each of them.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully processed the batch, see the result of each booking"),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch")
+    })
+    @PostMapping("/batch")
+    public List<BookingBatchResult> createBookings(@RequestBody List<Booking> bookings) {
+        if (bookings.isEmpty() || bookings.size() > batchMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid batch size. Must be between 1 and " + batchMaxSize + ".");
+        }
+
+        return bookingService.createBookings(bookings);
+    }
+
     @Operation(summary = "Update an existing booking", description = "Updates an existing booking for cleaning services.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully updated booking"),
@@ -99,12 +165,27 @@ public class BookingController {
         return bookingService.updateBooking(id, booking);
     }
 
-    @Operation(summary = "Get all bookings", description = "Returns a list of all bookings.")
+    @Operation(summary = "List bookings", description = "Returns a page of booked professionals, one per professional of a booking, ordered by booking start time, optionally filtered by date range, professional and vehicle. Pass the returned cursor to get the next page.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of all bookings")
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the page of booking details"),
+            @ApiResponse(responseCode = "400", description = "Invalid input parameters")
     })
     @GetMapping
-    public List<BookingDetail> getAllBookingDetails() {
-        return bookingService.getAllBookingDetails();
+    public BookingDetailPage getBookingDetails(@RequestParam(required = false) String from, @RequestParam(required = false) String to,
+                                               @RequestParam(required = false) Long professionalId, @RequestParam(required = false) Long vehicleId,
+                                               @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "50") int size) {
+        if (size < 1 || size > pageMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page size. Must be between 1 and " + pageMaxSize + ".");
+        }
+
+        try {
+            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+            LocalDate parsedFrom = from != null ? LocalDate.parse(from, dateFormatter) : null;
+            LocalDate parsedTo = to != null ? LocalDate.parse(to, dateFormatter) : null;
+
+            return bookingService.getBookingDetails(parsedFrom, parsedTo, professionalId, vehicleId, cursor, size);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date format", e);
+        }
     }
 }
@@ -0,0 +1,30 @@
+package com.justlife.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One availability check of a bulk request, with the same parameters as {@code GET /bookings/availability}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityQuery {
+
+    @Schema(description = "The date to check availability for", example = "2024-07-22", required = true)
+    private LocalDate date;
+
+    @Schema(description = "Start time of the booking, to check a time range instead of the whole working day", example = "2024-07-22T10:00:00")
+    private LocalDateTime startTime;
+
+    @Schema(description = "Duration of the booking in hours, required with the start time", example = "2")
+    private Integer duration;
+
+    @Schema(description = "Number of cleaning professionals required, 1 by default", example = "1")
+    private Integer professionalsRequired;
+}
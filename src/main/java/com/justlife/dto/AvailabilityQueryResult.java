@@ -0,0 +1,31 @@
+package com.justlife.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityQueryResult {
+
+    @Schema(description = "Position of the query in the submitted list", example = "0", required = true)
+    private int index;
+
+    @Schema(description = "The available cleaning professionals, when the query is valid")
+    private List<AvailableProfessional> professionals;
+
+    @Schema(description = "Why the query could not be answered, when it is invalid", example = "Invalid booking duration. Must be 2 or 4 hours.")
+    private String error;
+
+    public static AvailabilityQueryResult answered(int index, List<AvailableProfessional> professionals) {
+        return new AvailabilityQueryResult(index, professionals, null);
+    }
+
+    public static AvailabilityQueryResult rejected(int index, String error) {
+        return new AvailabilityQueryResult(index, null, error);
+    }
+}
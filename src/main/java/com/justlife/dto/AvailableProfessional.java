@@ -0,0 +1,30 @@
+package com.justlife.dto;
+
+import com.justlife.model.CleaningProfessional;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A cleaning professional available for a booking, with only what a client needs to pick a team.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailableProfessional {
+
+    @Schema(description = "Unique identifier of the cleaning professional", example = "1", required = true)
+    private Long id;
+
+    @Schema(description = "Name of the cleaning professional", example = "John Doe", required = true)
+    private String name;
+
+    @Schema(description = "Unique identifier of the vehicle of the cleaning professional", example = "1")
+    private Long vehicleId;
+
+    public static AvailableProfessional of(CleaningProfessional professional) {
+        Long vehicleId = professional.getVehicle() != null ? professional.getVehicle().getId() : null;
+        return new AvailableProfessional(professional.getId(), professional.getName(), vehicleId);
+    }
+}
@@ -0,0 +1,41 @@
+package com.justlife.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A cleaning professional assigned to a booking, flattened into the columns a booking listing renders.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingAssignment {
+
+    @Schema(description = "Unique identifier of the booking detail", example = "15", required = true)
+    private Long id;
+
+    @Schema(description = "Unique identifier of the booking", example = "1", required = true)
+    private Long bookingId;
+
+    @Schema(description = "Start time of the booking", example = "2024-07-22T10:00:00", required = true)
+    private LocalDateTime startTime;
+
+    @Schema(description = "End time of the booking", example = "2024-07-22T12:00:00", required = true)
+    private LocalDateTime endTime;
+
+    @Schema(description = "Duration of the booking in hours", example = "2", required = true)
+    private int duration;
+
+    @Schema(description = "Unique identifier of the cleaning professional", example = "1", required = true)
+    private Long professionalId;
+
+    @Schema(description = "Name of the cleaning professional", example = "John Doe", required = true)
+    private String professionalName;
+
+    @Schema(description = "Unique identifier of the vehicle of the cleaning professional", example = "1")
+    private Long vehicleId;
+}
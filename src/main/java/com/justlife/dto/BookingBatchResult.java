@@ -0,0 +1,38 @@
+package com.justlife.dto;
+
+import com.justlife.model.Booking;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBatchResult {
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    @Schema(description = "Position of the booking in the submitted batch", example = "0", required = true)
+    private int index;
+
+    @Schema(description = "Whether the booking was created", example = "CREATED", required = true)
+    private Status status;
+
+    @Schema(description = "The created booking, when the booking was created")
+    private Booking booking;
+
+    @Schema(description = "Why the booking was rejected, when the booking was rejected", example = "Not enough professionals available for the requested time")
+    private String error;
+
+    public static BookingBatchResult created(int index, Booking booking) {
+        return new BookingBatchResult(index, Status.CREATED, booking, null);
+    }
+
+    public static BookingBatchResult rejected(int index, String error) {
+        return new BookingBatchResult(index, Status.REJECTED, null, error);
+    }
+}
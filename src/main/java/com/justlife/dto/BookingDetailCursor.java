@@ -0,0 +1,36 @@
+package com.justlife.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of a booking detail in the booking start time order, handed to clients as an opaque token to resume
+ * listing after it.
+ *
+ * @param startTime the start time of the booking
+ * @param id the id of the booking detail
+ */
+public record BookingDetailCursor(LocalDateTime startTime, Long id) {
+
+    private static final String SEPARATOR = ",";
+
+    public static BookingDetailCursor of(BookingAssignment assignment) {
+        return new BookingDetailCursor(assignment.getStartTime(), assignment.getId());
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((startTime + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookingDetailCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 2);
+            return new BookingDetailCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.justlife.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDetailPage {
+
+    @Schema(description = "Booked professionals of the page, one item per professional of a booking, ordered by booking start time", required = true)
+    private List<BookingAssignment> items;
+
+    @Schema(description = "Cursor of the next page, absent on the last page", example = "MjAyNC0wNy0yMlQxMDowMCwxNQ")
+    private String nextCursor;
+}
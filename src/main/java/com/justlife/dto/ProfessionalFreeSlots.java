@@ -0,0 +1,28 @@
+package com.justlife.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfessionalFreeSlots {
+
+    @Schema(description = "Unique identifier of the cleaning professional", example = "1", required = true)
+    private Long professionalId;
+
+    @Schema(description = "Name of the cleaning professional", example = "John Doe", required = true)
+    private String name;
+
+    @Schema(description = "Unique identifier of the vehicle of the cleaning professional", example = "1")
+    private Long vehicleId;
+
+    @Schema(description = "Times a booking can start at, keyed by booking duration in hours", example = "{\"2\": [\"08:00:00\", \"08:30:00\"], \"4\": [\"08:00:00\"]}", required = true)
+    private Map<Integer, List<LocalTime>> startTimes;
+}
@@ -8,11 +8,14 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_booking_time_window", columnList = "start_time, end_time, id"))
 @Data
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "booking_id")
+    @TableGenerator(name = "booking_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "booking", initialValue = 1, allocationSize = 50)
     @Schema(description = "Unique identifier of the booking", example = "1", required = true)
     private Long id;
 
@@ -4,22 +4,33 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_booking_detail_professional", columnList = "professional_id, booking_id"),
+        @Index(name = "idx_booking_detail_booking", columnList = "booking_id, professional_id"),
+        @Index(name = "idx_booking_detail_start_time", columnList = "start_time, id")})
 @Data
 public class BookingDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "booking_detail_id")
+    @TableGenerator(name = "booking_detail_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "booking_detail", initialValue = 1, allocationSize = 50)
     @Schema(description = "Unique identifier of the booking detail", example = "1", required = true)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booking_id")
     @Schema(description = "The booking associated with the booking detail", required = true)
     private Booking booking;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "professional_id")
     @Schema(description = "The cleaning professional associated with the booking detail", required = true)
     private CleaningProfessional cleaningProfessional;
+
+    @Schema(description = "Start time of the booking, kept with each of its details to list them in start time order", example = "2024-07-22T10:00:00", required = true)
+    private LocalDateTime startTime;
 }
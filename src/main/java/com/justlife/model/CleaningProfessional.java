@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Entity
@@ -11,7 +12,9 @@ import java.util.List;
 public class CleaningProfessional {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cleaning_professional_id")
+    @TableGenerator(name = "cleaning_professional_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "cleaning_professional", initialValue = 1, allocationSize = 50)
     @Schema(description = "Unique identifier of the cleaning professional", example = "1", required = true)
     private Long id;
 
@@ -27,7 +30,13 @@ public class CleaningProfessional {
     @Schema(description = "Whether the cleaning professional works on Fridays", example = "false", required = true)
     private boolean workingOnFridays = false;
 
-    @ManyToOne
+    @ElementCollection
+    @CollectionTable(name = "professional_shift", joinColumns = @JoinColumn(name = "professional_id"),
+            indexes = @Index(name = "idx_professional_shift_window", columnList = "day_of_week, start_minute, end_minute, professional_id"))
+    @Schema(description = "Weekly shifts of the cleaning professional. When empty, workingHours and workingOnFridays apply")
+    private List<WorkingShift> shifts = new ArrayList<>();
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "vehicle_id")
     @Schema(description = "Vehicle assigned to the cleaning professional", required = true)
     private Vehicle vehicle;
@@ -0,0 +1,76 @@
+package com.justlife.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * The slots of a day reserved by a cleaning professional's bookings, one bit per 30-minute slot as in
+ * {@link ProfessionalSlotReservation}, so checking a professional for a day is one row read and a bitwise AND.
+ * <p>
+ * A booking's slots are ORed into the bitmap, inserting the row with the first booking of the day, and cleared by
+ * subtracting the ones set, so the updates stay single statements in SQL.
+ */
+@Entity
+@Table(name = "professional_day_occupancy")
+@IdClass(ProfessionalDayOccupancy.Key.class)
+@Data
+@NoArgsConstructor
+public class ProfessionalDayOccupancy implements Persistable<ProfessionalDayOccupancy.Key> {
+
+    @Id
+    @Column(name = "slot_day")
+    @Schema(description = "The day of the slots", example = "2024-07-22", required = true)
+    private LocalDate day;
+
+    @Id
+    @Column(name = "professional_id")
+    @Schema(description = "The cleaning professional holding the slots", example = "1", required = true)
+    private Long professionalId;
+
+    @Column(name = "bitmap", nullable = false)
+    @Schema(description = "The reserved slots of the day, bit 0 being the slot starting at midnight", example = "32505856", required = true)
+    private long bitmap;
+
+    @Transient
+    private boolean persisted;
+
+    public ProfessionalDayOccupancy(Long professionalId, LocalDate day, long bitmap) {
+        this.professionalId = professionalId;
+        this.day = day;
+        this.bitmap = bitmap;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(day, professionalId);
+    }
+
+    /**
+     * Rows are only inserted when no row exists for the day yet, so saving one must not look it up first.
+     */
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Long professionalId;
+    }
+}
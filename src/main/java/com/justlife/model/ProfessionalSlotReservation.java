@@ -0,0 +1,73 @@
+package com.justlife.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A 30-minute slot held by a cleaning professional for a booking, including the break after it. The primary key on
+ * (professional_id, slot_start) lets the database reject any booking that would overlap another one.
+ */
+@Entity
+@Table(name = "professional_slot_reservation", indexes = @Index(name = "idx_slot_reservation_booking", columnList = "booking_id"))
+@IdClass(ProfessionalSlotReservation.Key.class)
+@Data
+@NoArgsConstructor
+public class ProfessionalSlotReservation implements Persistable<ProfessionalSlotReservation.Key> {
+
+    @Id
+    @Column(name = "professional_id")
+    @Schema(description = "The cleaning professional holding the slot", example = "1", required = true)
+    private Long professionalId;
+
+    @Id
+    @Column(name = "slot_start")
+    @Schema(description = "Start time of the slot", example = "2024-07-22T10:00:00", required = true)
+    private LocalDateTime slotStart;
+
+    @Column(name = "booking_id", nullable = false)
+    @Schema(description = "The booking the slot is reserved for", example = "1", required = true)
+    private Long bookingId;
+
+    @Transient
+    private boolean persisted;
+
+    public ProfessionalSlotReservation(Long professionalId, LocalDateTime slotStart, Long bookingId) {
+        this.professionalId = professionalId;
+        this.slotStart = slotStart;
+        this.bookingId = bookingId;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(professionalId, slotStart);
+    }
+
+    /**
+     * Reservations are only ever inserted, so saving one must not look it up first.
+     */
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long professionalId;
+        private LocalDateTime slotStart;
+    }
+}
@@ -0,0 +1,28 @@
+package com.justlife.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkingShift {
+
+    @Enumerated(EnumType.STRING)
+    @Schema(description = "Day of the week the shift applies to", example = "MONDAY", required = true)
+    private DayOfWeek dayOfWeek;
+
+    @Schema(description = "Start of the shift in minutes from midnight", example = "480", required = true)
+    private int startMinute;
+
+    @Schema(description = "End of the shift in minutes from midnight", example = "1320", required = true)
+    private int endMinute;
+}
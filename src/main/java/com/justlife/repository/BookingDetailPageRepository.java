@@ -0,0 +1,29 @@
+package com.justlife.repository;
+
+import com.justlife.dto.BookingAssignment;
+import com.justlife.dto.BookingDetailCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Booking listing queries projected straight into response rows, mixed into {@link BookingDetailRepository}.
+ */
+public interface BookingDetailPageRepository {
+
+    /**
+     * Finds booking assignments in booking start time order, resuming after a cursor. Only the given filters are
+     * added to the query, so each combination can use the index on its columns, and the rows read are bounded by the
+     * limit. Only the rendered columns are selected and no entity is loaded.
+     *
+     * @param from the earliest booking start time, or null
+     * @param to the latest booking start time, exclusive, or null
+     * @param professionalId the id of the cleaning professional, or null
+     * @param vehicleId the id of the vehicle, or null
+     * @param after the position to resume after, or null for the first page
+     * @param limit the maximum number of booking assignments to return
+     * @return the booking assignments
+     */
+    List<BookingAssignment> findPage(LocalDateTime from, LocalDateTime to, Long professionalId, Long vehicleId,
+                                     BookingDetailCursor after, int limit);
+}
@@ -0,0 +1,68 @@
+package com.justlife.repository;
+
+import com.justlife.dto.BookingAssignment;
+import com.justlife.dto.BookingDetailCursor;
+import com.justlife.model.Booking;
+import com.justlife.model.BookingDetail;
+import com.justlife.model.CleaningProfessional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class BookingDetailPageRepositoryImpl implements BookingDetailPageRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingAssignment> findPage(LocalDateTime from, LocalDateTime to, Long professionalId, Long vehicleId,
+                                            BookingDetailCursor after, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingAssignment> query = builder.createQuery(BookingAssignment.class);
+        Root<BookingDetail> detail = query.from(BookingDetail.class);
+        Join<BookingDetail, Booking> booking = detail.join("booking");
+        Join<BookingDetail, CleaningProfessional> professional = detail.join("cleaningProfessional");
+        // The vehicle id is the foreign key column of the professional, no join needed
+        Path<Long> professionalVehicleId = professional.get("vehicle").get("id");
+
+        // The start time copied onto the details, so the filters, the cursor and the order all follow one index
+        Path<LocalDateTime> startTime = detail.get("startTime");
+        List<Predicate> predicates = new ArrayList<>();
+        if (from != null) {
+            predicates.add(builder.greaterThanOrEqualTo(startTime, from));
+        }
+        if (to != null) {
+            predicates.add(builder.lessThan(startTime, to));
+        }
+        if (professionalId != null) {
+            predicates.add(builder.equal(professional.get("id"), professionalId));
+        }
+        if (vehicleId != null) {
+            predicates.add(builder.equal(professionalVehicleId, vehicleId));
+        }
+        if (after != null) {
+            // The leading range seeks the index, the rest only skips the details at the cursor's start time
+            predicates.add(builder.greaterThanOrEqualTo(startTime, after.startTime()));
+            predicates.add(builder.or(
+                    builder.greaterThan(startTime, after.startTime()),
+                    builder.greaterThan(detail.get("id"), after.id())));
+        }
+
+        query.select(builder.construct(BookingAssignment.class,
+                        detail.get("id"), booking.get("id"), startTime, booking.get("endTime"), booking.get("duration"),
+                        professional.get("id"), professional.get("name"), professionalVehicleId))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(builder.asc(startTime), builder.asc(detail.get("id")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
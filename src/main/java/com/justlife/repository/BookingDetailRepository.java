@@ -1,15 +1,65 @@
 package com.justlife.repository;
 
 import com.justlife.model.BookingDetail;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface BookingDetailRepository extends JpaRepository<BookingDetail, Long> {
-    
+public interface BookingDetailRepository extends JpaRepository<BookingDetail, Long>, BookingDetailPageRepository {
+
+    /**
+     * Finds all booking details with their bookings and professionals in one query.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"booking", "cleaningProfessional"})
+    List<BookingDetail> findAll();
+
     @Transactional
     void deleteByBookingId(Long bookingId);
+
+    /**
+     * Removes some professionals from a booking, leaving the rest of its team in place.
+     *
+     * @param bookingId the id of the booking
+     * @param professionalIds the ids of the professionals to remove
+     * @return the number of booking details deleted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from BookingDetail d where d.booking.id = :bookingId and d.cleaningProfessional.id in :professionalIds")
+    int deleteByBookingIdAndProfessionalIds(@Param("bookingId") Long bookingId, @Param("professionalIds") Collection<Long> professionalIds);
+
+    /**
+     * Moves the details of a booking to its new start time.
+     *
+     * @param bookingId the id of the booking
+     * @param startTime the new start time of the booking
+     * @return the number of booking details updated
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update BookingDetail d set d.startTime = :startTime where d.booking.id = :bookingId")
+    int updateStartTime(@Param("bookingId") Long bookingId, @Param("startTime") LocalDateTime startTime);
+
+    @EntityGraph(attributePaths = "booking")
     List<BookingDetail> findByCleaningProfessionalIdAndBookingStartTimeBetween(Long professionalId, LocalDateTime startTime, LocalDateTime endTime);
+
+    @Query("select d.cleaningProfessional.id as professionalId, b.id as bookingId, b.startTime as startTime, b.endTime as endTime " +
+            "from BookingDetail d join d.booking b")
+    List<ScheduledBooking> findAllScheduledBookings();
+
+    /**
+     * Flat view of a booked interval of a single professional, without hydrating the entities.
+     */
+    interface ScheduledBooking {
+        Long getProfessionalId();
+        Long getBookingId();
+        LocalDateTime getStartTime();
+        LocalDateTime getEndTime();
+    }
 }
@@ -1,9 +1,94 @@
 package com.justlife.repository;
 
 import com.justlife.model.CleaningProfessional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CleaningProfessionalRepository extends JpaRepository<CleaningProfessional, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Finds all professionals with their shifts and vehicles in one query, everything the availability checks and the
+     * professional responses read.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"shifts", "vehicle"})
+    List<CleaningProfessional> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"shifts", "vehicle"})
+    Optional<CleaningProfessional> findById(Long id);
+
+    /**
+     * Finds the team of a booking with their shifts and vehicles.
+     *
+     * @param bookingId the id of the booking
+     * @return the professionals assigned to the booking, ordered by id
+     */
+    @EntityGraph(attributePaths = {"shifts", "vehicle"})
+    @Query("select p from CleaningProfessional p " +
+            "where p.id in (select d.cleaningProfessional.id from BookingDetail d where d.booking.id = :bookingId) " +
+            "order by p.id")
+    List<CleaningProfessional> findByBookingId(@Param("bookingId") Long bookingId);
+
+    /**
+     * Finds the professionals with a shift covering the requested window whose occupancy bitmaps have none of the
+     * slots the booking would reserve. Professionals without shifts fall back to their working hours, stored as
+     * "HH:mm-HH:mm" so that comparing the clock strings is equivalent to comparing times, and to the Friday rule.
+     * <p>
+     * The slots run from the start of the window to the end of the break after it, which may spill into the next day.
+     *
+     * @param day the requested day of the week
+     * @param friday whether the requested day is a Friday
+     * @param startMinute the requested start time, in minutes from midnight
+     * @param endMinute the requested end time, in minutes from midnight of the start day
+     * @param startClock the requested start time, formatted as ISO local time
+     * @param endClock the requested end time, formatted as ISO local time
+     * @param startDay the day of the requested start time
+     * @param startDaySlots the bitmask of the slots of the start day the booking would reserve
+     * @param nextDay the day after the start day
+     * @param nextDaySlots the bitmask of the slots of the next day the booking would reserve, usually none
+     * @param limit the maximum number of professionals to return
+     * @return the available professionals with their vehicles, ordered by id
+     */
+    @EntityGraph(attributePaths = "vehicle")
+    @Query("select p from CleaningProfessional p " +
+            "where (p.id in (select sp.id from CleaningProfessional sp join sp.shifts s " +
+            "where s.dayOfWeek = :day and s.startMinute <= :startMinute and s.endMinute >= :endMinute) " +
+            "or (p.shifts is empty and (p.workingOnFridays = true or :friday = false) and :endMinute <= 1440 " +
+            "and substring(p.workingHours, 1, 5) <= :startClock and substring(p.workingHours, 7, 5) >= :endClock)) " +
+            "and not exists (select o.professionalId from ProfessionalDayOccupancy o where o.professionalId = p.id " +
+            "and ((o.day = :startDay and bitand(o.bitmap, cast(:startDaySlots as Long)) <> 0) " +
+            "or (o.day = :nextDay and bitand(o.bitmap, cast(:nextDaySlots as Long)) <> 0))) " +
+            "order by p.id")
+    List<CleaningProfessional> findAvailable(@Param("day") DayOfWeek day,
+                                             @Param("friday") boolean friday,
+                                             @Param("startMinute") int startMinute,
+                                             @Param("endMinute") int endMinute,
+                                             @Param("startClock") String startClock,
+                                             @Param("endClock") String endClock,
+                                             @Param("startDay") LocalDate startDay,
+                                             @Param("startDaySlots") long startDaySlots,
+                                             @Param("nextDay") LocalDate nextDay,
+                                             @Param("nextDaySlots") long nextDaySlots,
+                                             Limit limit);
+
+    /**
+     * Locks a professional row for the rest of the transaction unless another transaction already holds it, in which
+     * case nothing is returned instead of waiting. Requires MySQL 8 or later.
+     *
+     * @param id the id of the cleaning professional
+     * @return the id if the row was locked, empty if it is locked by another transaction
+     */
+    @Query(value = "SELECT id FROM cleaning_professional WHERE id = :id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<Long> claimSkipLocked(@Param("id") Long id);
+}
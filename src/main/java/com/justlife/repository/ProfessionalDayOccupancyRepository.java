@@ -0,0 +1,62 @@
+package com.justlife.repository;
+
+import com.justlife.model.ProfessionalDayOccupancy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProfessionalDayOccupancyRepository extends JpaRepository<ProfessionalDayOccupancy, ProfessionalDayOccupancy.Key> {
+
+    /**
+     * Finds the occupancy of every professional with a reservation on the given days, in one range read of the
+     * primary key.
+     *
+     * @param from the first day
+     * @param to the last day, inclusive
+     * @return the occupancy rows of the days
+     */
+    List<ProfessionalDayOccupancy> findByDayBetween(LocalDate from, LocalDate to);
+
+    /**
+     * Finds the occupancy of every professional with a reservation on any of the given days.
+     *
+     * @param days the days, in any order
+     * @return the occupancy rows of the days
+     */
+    List<ProfessionalDayOccupancy> findByDayIn(Collection<LocalDate> days);
+
+    /**
+     * Marks slots of a day as reserved by a professional, inserting its row for the day if there is none yet. The
+     * slots are ORed into the row in a single statement, so concurrent bookings of the same professional and day
+     * neither collide on the insert nor lose each other's slots.
+     *
+     * @param professionalId the id of the cleaning professional
+     * @param day the day of the slots
+     * @param slots the bitmask of the slots to reserve
+     * @return the number of rows inserted or updated
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("insert into ProfessionalDayOccupancy (day, professionalId, bitmap) values (:day, :professionalId, cast(:slots as Long)) " +
+            "on conflict(day, professionalId) do update set bitmap = bitor(bitmap, excluded.bitmap)")
+    int occupy(@Param("professionalId") Long professionalId, @Param("day") LocalDate day, @Param("slots") long slots);
+
+    /**
+     * Clears slots of a day a professional no longer holds. Slots already clear in the row stay clear.
+     *
+     * @param professionalId the id of the cleaning professional
+     * @param day the day of the slots
+     * @param slots the bitmask of the slots to clear
+     * @return the number of rows updated
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update ProfessionalDayOccupancy o set o.bitmap = o.bitmap - bitand(o.bitmap, cast(:slots as Long)) " +
+            "where o.day = :day and o.professionalId = :professionalId")
+    int vacate(@Param("professionalId") Long professionalId, @Param("day") LocalDate day, @Param("slots") long slots);
+}
@@ -0,0 +1,34 @@
+package com.justlife.repository;
+
+import com.justlife.model.ProfessionalSlotReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface ProfessionalSlotReservationRepository extends JpaRepository<ProfessionalSlotReservation, ProfessionalSlotReservation.Key> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from ProfessionalSlotReservation r where r.bookingId = :bookingId")
+    void deleteByBookingId(@Param("bookingId") Long bookingId);
+
+    /**
+     * Deletes the reservations of a booking except the given slots of the given professionals, the ones it keeps when
+     * it is rescheduled.
+     *
+     * @param bookingId the id of the booking
+     * @param professionalIds the ids of the professionals staying on the booking
+     * @param slots the start times of the slots reserved both before and after the rescheduling
+     * @return the number of reservations deleted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from ProfessionalSlotReservation r where r.bookingId = :bookingId " +
+            "and (r.professionalId not in :professionalIds or r.slotStart not in :slots)")
+    int deleteAllExcept(@Param("bookingId") Long bookingId, @Param("professionalIds") Collection<Long> professionalIds,
+                        @Param("slots") Collection<LocalDateTime> slots);
+}
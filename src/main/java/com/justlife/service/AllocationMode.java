@@ -0,0 +1,18 @@
+package com.justlife.service;
+
+/**
+ * How {@link BookingService} keeps concurrent bookings from assigning the same professionals.
+ */
+public enum AllocationMode {
+
+    /**
+     * Bookings on the same vehicle wait for each other on an in-process lock.
+     */
+    STRIPED_LOCK,
+
+    /**
+     * Each booking locks the professional rows it assigns with {@code FOR UPDATE SKIP LOCKED}, so concurrent bookings
+     * pass over professionals claimed by others instead of waiting for them.
+     */
+    SKIP_LOCKED
+}
@@ -0,0 +1,169 @@
+package com.justlife.service;
+
+import com.justlife.model.CleaningProfessional;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of availability results, least recently used entries evicted first.
+ * <p>
+ * Entries are grouped by date and dropped once a booking touching their date commits, so a cached result never
+ * outlives a change to the schedule it was computed from. A result computed while such a commit happened is not
+ * cached at all, since it may have been read before the commit.
+ */
+@Component
+public class AvailabilityCache {
+
+    private final int maxSize;
+    private final Map<Key, List<CleaningProfessional>> entries;
+    private final Map<LocalDate, Set<Key>> keysByDate = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private long generation;
+
+    public AvailabilityCache(@Value("${justlife.availability.cache.max-size:10000}") int maxSize, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<CleaningProfessional>> eldest) {
+                if (size() <= AvailabilityCache.this.maxSize) {
+                    return false;
+                }
+                unindex(eldest.getKey());
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get).tags("cache", "availability", "result", "hit")
+                .description("Availability lookups answered from the cache").register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get).tags("cache", "availability", "result", "miss")
+                .description("Availability lookups computed because they were not cached").register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get).tags("cache", "availability")
+                .description("Availability results evicted to keep the cache within its size").register(meterRegistry);
+        FunctionCounter.builder("cache.invalidations", invalidations, AtomicLong::get).tags("cache", "availability")
+                .description("Availability results dropped because a booking changed their date").register(meterRegistry);
+        Gauge.builder("cache.size", this, AvailabilityCache::size).tags("cache", "availability")
+                .description("Availability results in the cache").register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached result for a key, computing and caching it on a miss.
+     *
+     * @param key the date and parameters of the availability check
+     * @param loader computes the result on a miss
+     * @return the available cleaning professionals
+     */
+    public List<CleaningProfessional> get(Key key, Supplier<List<CleaningProfessional>> loader) {
+        long loadedAt;
+        synchronized (this) {
+            List<CleaningProfessional> cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            misses.incrementAndGet();
+            loadedAt = generation;
+        }
+
+        List<CleaningProfessional> result = List.copyOf(loader.get());
+
+        synchronized (this) {
+            if (maxSize > 0 && generation == loadedAt) {
+                entries.put(key, result);
+                keysByDate.computeIfAbsent(key.date(), date -> new HashSet<>()).add(key);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops the cached results of every date a time range touches.
+     *
+     * @param startTime the start of the range
+     * @param endTime the end of the range
+     */
+    public synchronized void invalidate(LocalDateTime startTime, LocalDateTime endTime) {
+        generation++;
+        for (LocalDate date = startTime.toLocalDate(); !date.isAfter(endTime.toLocalDate()); date = date.plusDays(1)) {
+            Set<Key> keys = keysByDate.remove(date);
+            if (keys != null) {
+                entries.keySet().removeAll(keys);
+                invalidations.addAndGet(keys.size());
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #invalidate}, but deferred until the surrounding transaction commits, after the schedule index
+     * has recorded the change.
+     */
+    public void invalidateAfterCommit(LocalDateTime startTime, LocalDateTime endTime) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(startTime, endTime);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(startTime, endTime);
+            }
+        });
+    }
+
+    /**
+     * Drops every cached result, when a change affects all dates such as a professional's shifts.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations.addAndGet(entries.size());
+        entries.clear();
+        keysByDate.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void unindex(Key key) {
+        Set<Key> keys = keysByDate.get(key.date());
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByDate.remove(key.date());
+            }
+        }
+    }
+
+    /**
+     * Date and parameters of an availability check.
+     *
+     * @param date the date checked
+     * @param startTime the start time checked, or null when checking the whole working day
+     * @param duration the duration checked in hours, or 0 when checking the whole working day
+     * @param professionalsRequired the number of professionals required
+     */
+    public record Key(LocalDate date, LocalTime startTime, int duration, int professionalsRequired) {
+    }
+}
@@ -1,23 +1,52 @@
 package com.justlife.service;
 
+import com.justlife.dto.AvailabilityQuery;
+import com.justlife.dto.AvailabilityQueryResult;
+import com.justlife.dto.AvailableProfessional;
+import com.justlife.dto.ProfessionalFreeSlots;
 import com.justlife.model.Booking;
 import com.justlife.model.BookingDetail;
 import com.justlife.model.CleaningProfessional;
+import com.justlife.model.ProfessionalDayOccupancy;
+import com.justlife.model.ProfessionalSlotReservation;
 import com.justlife.repository.BookingDetailRepository;
 import com.justlife.repository.BookingRepository;
 import com.justlife.repository.CleaningProfessionalRepository;
+import com.justlife.repository.ProfessionalDayOccupancyRepository;
+import com.justlife.repository.ProfessionalSlotReservationRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
 public class AvailabilityCheckService {
 
+    /**
+     * Durations a booking can have, in hours.
+     */
+    private static final int[] BOOKING_DURATIONS = {2, 4};
+
     @Autowired
     private CleaningProfessionalRepository professionalRepository;
 
@@ -27,6 +56,35 @@ public class AvailabilityCheckService {
     @Autowired
     private BookingDetailRepository bookingDetailRepository;
 
+    @Autowired
+    private ProfessionalSlotReservationRepository slotReservationRepository;
+
+    @Autowired
+    private ProfessionalDayOccupancyRepository dayOccupancyRepository;
+
+    @Autowired
+    private ProfessionalScheduleIndex scheduleIndex;
+
+    @Autowired
+    private WeeklyShiftCalendar shiftCalendar;
+
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    @Autowired
+    private ReadReplicaRouter readReplicaRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Answers availability with a single query instead of the in-memory schedule index. Required when several
+     * instances share the database, since each index only sees the bookings made through its own instance. The
+     * availability cache is bypassed too, for the same reason.
+     */
+    @Value("${justlife.availability.query-database:false}")
+    private boolean queryDatabase;
+
     /**
      * Checks the availability of cleaning professionals on a given date.
      *
@@ -34,17 +92,76 @@ public class AvailabilityCheckService {
      * @param professionalsRequired the number of professionals required
      * @return a list of available cleaning professionals
      */
+    @Timed(value = "justlife.availability", extraTags = {"operation", "by-date"}, histogram = true)
+    @Transactional(readOnly = true)
     public List<CleaningProfessional> checkAvailabilityByDate(LocalDate date, int professionalsRequired) {
         LocalDateTime startOfDay = date.atTime(8, 0);  // Start of the working day at 8:00 AM
         LocalDateTime endOfDay = date.atTime(22, 0);   // End of the working day at 10:00 PM
+        readReplicaRouter.readFromReplica(List.of(date));
+
+        if (queryDatabase) {
+            return findAvailableInDatabase(startOfDay, endOfDay, professionalsRequired);
+        }
 
+        return availabilityCache.get(new AvailabilityCache.Key(date, null, 0, professionalsRequired), () ->
+                scan("by-date", professionalRepository.findAll(), pro -> isAvailableOnDate(pro, startOfDay, endOfDay), professionalsRequired));
+    }
+
+    /**
+     * Lists the times each cleaning professional can start a booking of every duration on a given date. The bookings
+     * of the day are swept once into a mask of blocked slots per professional, the bookings padded with the
+     * mandatory break, and the start times are the slots within the shifts where a whole booking fits unblocked.
+     *
+     * @param date the date to list the free start times for
+     * @return the professionals with at least one free start time, with their start times by booking duration
+     */
+    @Timed(value = "justlife.availability", extraTags = {"operation", "free-slots"}, histogram = true)
+    @Transactional(readOnly = true)
+    public List<ProfessionalFreeSlots> findFreeSlots(LocalDate date) {
+        LocalDateTime startOfDay = date.atStartOfDay();
+        readReplicaRouter.readFromReplica(List.of(date, date.plusDays(1)));
         List<CleaningProfessional> allProfessionals = professionalRepository.findAll();
 
-        // Filter professionals based on availability
-        return allProfessionals.stream()
-                .filter(pro -> isAvailableOnDate(pro, startOfDay, endOfDay))
-                .limit(professionalsRequired)
-                .collect(Collectors.toList());
+        Map<Long, Long> blockedSlots = new HashMap<>();
+        if (queryDatabase) {
+            // The first slot of the next day tells whether the last slot of the day is needed for a break
+            for (ProfessionalDayOccupancy occupancy : dayOccupancyRepository.findByDayBetween(date, date.plusDays(1))) {
+                long blocked = occupancy.getDay().equals(date)
+                        ? ProfessionalScheduleIndex.blockedSlots(occupancy.getBitmap(), 0)
+                        : ProfessionalScheduleIndex.blockedSlots(0, occupancy.getBitmap());
+                blockedSlots.merge(occupancy.getProfessionalId(), blocked, (a, b) -> a | b);
+            }
+        } else {
+            for (CleaningProfessional professional : allProfessionals) {
+                blockedSlots.put(professional.getId(), scheduleIndex.blockedSlots(professional.getId(), date));
+            }
+        }
+
+        List<ProfessionalFreeSlots> freeSlots = new ArrayList<>();
+        for (CleaningProfessional professional : allProfessionals) {
+            long free = shiftCalendar.workingSlots(professional, date.getDayOfWeek()) & ~blockedSlots.getOrDefault(professional.getId(), 0L);
+            if (free == 0) {
+                continue;
+            }
+
+            Map<Integer, List<LocalTime>> startTimes = new LinkedHashMap<>();
+            for (int duration : BOOKING_DURATIONS) {
+                long starts = WeeklyShiftCalendar.startSlots(free, duration * 60 / WeeklyShiftCalendar.SLOT_MINUTES);
+                List<LocalTime> times = new ArrayList<>(Long.bitCount(starts));
+                for (; starts != 0; starts &= starts - 1) {
+                    times.add(WeeklyShiftCalendar.slotStart(Long.numberOfTrailingZeros(starts)));
+                }
+                startTimes.put(duration, times);
+            }
+
+            // No room for the shortest booking means no room for any
+            if (!startTimes.get(BOOKING_DURATIONS[0]).isEmpty()) {
+                Long vehicleId = professional.getVehicle() != null ? professional.getVehicle().getId() : null;
+                freeSlots.add(new ProfessionalFreeSlots(professional.getId(), professional.getName(), vehicleId, startTimes));
+            }
+        }
+        candidatesScanned("free-slots").record(allProfessionals.size());
+        return freeSlots;
     }
 
     /**
@@ -55,58 +172,276 @@ public class AvailabilityCheckService {
      * @param professionalsRequired the number of professionals required
      * @return a list of available cleaning professionals
      */
+    @Timed(value = "justlife.availability", extraTags = {"operation", "by-date-time"}, histogram = true)
+    @Transactional(readOnly = true)
     public List<CleaningProfessional> checkAvailabilityByDateTime(LocalDateTime startTime, int duration, int professionalsRequired) {
+        readReplicaRouter.readFromReplica(startTime, startTime.plusHours(duration).plus(ProfessionalScheduleIndex.BREAK));
+        if (queryDatabase) {
+            return findAvailable("by-date-time", startTime, duration, professionalsRequired);
+        }
+
+        AvailabilityCache.Key key = new AvailabilityCache.Key(startTime.toLocalDate(), startTime.toLocalTime(), duration, professionalsRequired);
+        return availabilityCache.get(key, () -> findAvailable("by-date-time", startTime, duration, professionalsRequired));
+    }
+
+    /**
+     * Finds every cleaning professional available for a given date and time range, for callers that choose among
+     * them instead of taking the first ones. Always computed, never served from the cache.
+     *
+     * @param startTime the start time of the required availability
+     * @param duration the duration of the required availability
+     * @return a list of all available cleaning professionals
+     */
+    @Timed(value = "justlife.availability", extraTags = {"operation", "all-available"}, histogram = true)
+    @Transactional(readOnly = true)
+    public List<CleaningProfessional> findAllAvailable(LocalDateTime startTime, int duration) {
+        readReplicaRouter.readFromReplica(startTime, startTime.plusHours(duration).plus(ProfessionalScheduleIndex.BREAK));
+        return findAvailable("all-available", startTime, duration, Integer.MAX_VALUE);
+    }
+
+    private List<CleaningProfessional> findAvailable(String operation, LocalDateTime startTime, int duration, int professionalsRequired) {
         LocalDateTime endTime = startTime.plusHours(duration);
-        List<CleaningProfessional> allProfessionals = professionalRepository.findAll();
 
-        // Filter professionals based on availability
-        return allProfessionals.stream()
-                .filter(pro -> isAvailable(pro, startTime, endTime))
-                .limit(professionalsRequired)
-                .collect(Collectors.toList());
+        if (queryDatabase) {
+            return findAvailableInDatabase(startTime, endTime, professionalsRequired);
+        }
+
+        return scan(operation, professionalRepository.findAll(), pro -> isAvailable(pro, startTime, endTime), professionalsRequired);
     }
 
     /**
-     * Checks if a cleaning professional is available on a given date.
+     * Answers several availability checks against one snapshot. The professionals, and when querying the database the
+     * occupancy bitmaps of every day the checks touch, are read once, in a single transaction, and each check is then
+     * evaluated in memory with the rules and the bookings {@link #checkAvailabilityByDate} and
+     * {@link #checkAvailabilityByDateTime} use: the occupancy bitmaps, or the schedule index. Invalid checks are
+     * rejected without affecting the others.
      *
-     * @param professional the cleaning professional to check availability for
-     * @param startOfDay the start of the day to check availability from
-     * @param endOfDay the end of the day to check availability until
-     * @return true if the professional is available on the given date, false otherwise
+     * @param queries the availability checks
+     * @return one result per check, in the order the checks were given
      */
-    private boolean isAvailableOnDate(CleaningProfessional professional, LocalDateTime startOfDay, LocalDateTime endOfDay) {
-        // Check if the professional is working on the given day
-        boolean isWorkingDay = professional.isWorkingOnFridays() || startOfDay.getDayOfWeek().getValue() != 5;
+    @Timed(value = "justlife.availability", extraTags = {"operation", "bulk"}, histogram = true)
+    @Transactional(readOnly = true)
+    public List<AvailabilityQueryResult> checkAvailability(List<AvailabilityQuery> queries) {
+        Set<LocalDate> days = new HashSet<>();
+        for (AvailabilityQuery query : queries) {
+            if (invalidReason(query) == null) {
+                Window window = Window.of(query);
+                days.addAll(reservedSlotsByDay(window.startTime(), window.endTime()).keySet());
+            }
+        }
+        readReplicaRouter.readFromReplica(days);
 
-        if (!isWorkingDay) {
-            return false;
+        List<CleaningProfessional> allProfessionals = professionalRepository.findAll();
+        Map<ProfessionalDayOccupancy.Key, Long> bitmaps = new HashMap<>();
+        if (queryDatabase && !days.isEmpty()) {
+            for (ProfessionalDayOccupancy occupancy : dayOccupancyRepository.findByDayIn(days)) {
+                bitmaps.put(occupancy.getId(), occupancy.getBitmap());
+            }
         }
 
-        // Check working hours
-        String[] workingHours = professional.getWorkingHours().split("-");
-        LocalTime startWorkTime = LocalTime.parse(workingHours[0]);
-        LocalTime endWorkTime = LocalTime.parse(workingHours[1]);
+        List<AvailabilityQueryResult> results = new ArrayList<>();
+        for (int index = 0; index < queries.size(); index++) {
+            AvailabilityQuery query = queries.get(index);
+            String invalidReason = invalidReason(query);
+            if (invalidReason != null) {
+                results.add(AvailabilityQueryResult.rejected(index, invalidReason));
+                continue;
+            }
 
-        boolean isWithinWorkingHours = !startOfDay.toLocalTime().isBefore(startWorkTime) && !endOfDay.toLocalTime().isAfter(endWorkTime);
+            Window window = Window.of(query);
+            Predicate<CleaningProfessional> free;
+            if (queryDatabase) {
+                Map<LocalDate, Long> slots = reservedSlotsByDay(window.startTime(), window.endTime());
+                free = pro -> slots.entrySet().stream().noneMatch(daySlots ->
+                        (bitmaps.getOrDefault(new ProfessionalDayOccupancy.Key(daySlots.getKey(), pro.getId()), 0L) & daySlots.getValue()) != 0);
+            } else {
+                free = pro -> scheduleIndex.isFree(pro.getId(), window.startTime(), window.endTime());
+            }
+            List<CleaningProfessional> available = scan("bulk", allProfessionals,
+                    free.and(pro -> shiftCalendar.isWorking(pro, window.startTime(), window.endTime())), window.professionalsRequired());
+            results.add(AvailabilityQueryResult.answered(index, available.stream().map(AvailableProfessional::of).collect(Collectors.toList())));
+        }
+        return results;
+    }
 
-        if (!isWithinWorkingHours) {
-            return false;
+    private static String invalidReason(AvailabilityQuery query) {
+        if (query.getDate() == null) {
+            return "Invalid date. Must be provided.";
+        }
+        if (query.getProfessionalsRequired() != null && (query.getProfessionalsRequired() < 1 || query.getProfessionalsRequired() > 3)) {
+            return "Invalid number of professionals required";
+        }
+        if (query.getDuration() != null && query.getDuration() != 2 && query.getDuration() != 4) {
+            return "Invalid booking duration. Must be 2 or 4 hours.";
         }
+        if (query.getStartTime() != null && !WeeklyShiftCalendar.isSlotStart(query.getStartTime())) {
+            return "Invalid booking start time. Must be on the hour or half hour.";
+        }
+        return null;
+    }
 
-        // Check for existing bookings and ensure a 30-minute break
-        List<BookingDetail> bookingDetails = bookingDetailRepository.findByCleaningProfessionalIdAndBookingStartTimeBetween(
-                professional.getId(), startOfDay, endOfDay);
+    /**
+     * Keeps the cleaning professionals of a list that are still available for a given date and time range.
+     *
+     * @param professionals the cleaning professionals to check
+     * @param startTime the start time of the required availability
+     * @param duration the duration of the required availability
+     * @return the available cleaning professionals, in the order of the given list
+     */
+    @Timed(value = "justlife.availability", extraTags = {"operation", "recheck"}, histogram = true)
+    public List<CleaningProfessional> filterAvailable(List<CleaningProfessional> professionals, LocalDateTime startTime, int duration) {
+        LocalDateTime endTime = startTime.plusHours(duration);
 
-        for (BookingDetail bookingDetail : bookingDetails) {
-            LocalDateTime bookingStart = bookingDetail.getBooking().getStartTime();
-            LocalDateTime bookingEnd = bookingDetail.getBooking().getEndTime();
+        if (queryDatabase) {
+            Set<Long> availableIds = findAvailableInDatabase(startTime, endTime, Integer.MAX_VALUE).stream()
+                    .map(CleaningProfessional::getId)
+                    .collect(Collectors.toSet());
+            return professionals.stream()
+                    .filter(pro -> availableIds.contains(pro.getId()))
+                    .collect(Collectors.toList());
+        }
 
-            if (startOfDay.isBefore(bookingEnd.plusMinutes(30)) && endOfDay.isAfter(bookingStart.minusMinutes(30))) {
-                return false;
+        return scan("recheck", professionals, pro -> isAvailable(pro, startTime, endTime), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #filterAvailable(List, LocalDateTime, int)} for rescheduling a booking: the professionals on its
+     * current team are checked as if it were not booked, so that they can keep it at the new time.
+     *
+     * @param professionals the cleaning professionals to check
+     * @param startTime the new start time of the booking
+     * @param duration the new duration of the booking
+     * @param current the booking at its current time, with its current team
+     * @return the available cleaning professionals, in the order of the given list
+     */
+    @Timed(value = "justlife.availability", extraTags = {"operation", "recheck"}, histogram = true)
+    public List<CleaningProfessional> filterAvailable(List<CleaningProfessional> professionals, LocalDateTime startTime, int duration,
+                                                      Assignment current) {
+        LocalDateTime endTime = startTime.plusHours(duration);
+        Booking booking = current.booking();
+        Set<Long> teamIds = current.professionals().stream().map(CleaningProfessional::getId).collect(Collectors.toSet());
+
+        if (queryDatabase) {
+            Set<Long> availableIds = new HashSet<>();
+            if (professionals.stream().anyMatch(pro -> teamIds.contains(pro.getId()))) {
+                findAvailableInDatabase(startTime, endTime, Integer.MAX_VALUE, booking).stream()
+                        .map(CleaningProfessional::getId)
+                        .filter(teamIds::contains)
+                        .forEach(availableIds::add);
+            }
+            if (professionals.stream().anyMatch(pro -> !teamIds.contains(pro.getId()))) {
+                findAvailableInDatabase(startTime, endTime, Integer.MAX_VALUE).stream()
+                        .map(CleaningProfessional::getId)
+                        .filter(id -> !teamIds.contains(id))
+                        .forEach(availableIds::add);
             }
+            return professionals.stream()
+                    .filter(pro -> availableIds.contains(pro.getId()))
+                    .collect(Collectors.toList());
+        }
+
+        return scan("recheck", professionals, pro -> teamIds.contains(pro.getId())
+                ? isAvailable(pro, startTime, endTime, booking.getId())
+                : isAvailable(pro, startTime, endTime), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Keeps the first available cleaning professionals of a list, recording how many of them had to be checked.
+     *
+     * @param operation the availability operation, to tag the recorded count with
+     * @param professionals the cleaning professionals to check, in order
+     * @param available tells whether a professional is available
+     * @param professionalsRequired the number of professionals to stop at
+     * @return the available cleaning professionals, in the order of the given list
+     */
+    private List<CleaningProfessional> scan(String operation, List<CleaningProfessional> professionals,
+                                            Predicate<CleaningProfessional> available, int professionalsRequired) {
+        List<CleaningProfessional> availableProfessionals = new ArrayList<>();
+        int scanned = 0;
+        for (CleaningProfessional professional : professionals) {
+            if (availableProfessionals.size() == professionalsRequired) {
+                break;
+            }
+            scanned++;
+            if (available.test(professional)) {
+                availableProfessionals.add(professional);
+            }
+        }
+        candidatesScanned(operation).record(scanned);
+        return availableProfessionals;
+    }
+
+    /**
+     * Number of professionals checked in memory per availability check. Checks answered by the database query scan
+     * in the database and are not recorded.
+     */
+    private DistributionSummary candidatesScanned(String operation) {
+        return DistributionSummary.builder("justlife.availability.candidates")
+                .description("Cleaning professionals checked per availability check")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Finds the available professionals with one query, pushing the shift, working hours and occupancy filters
+     * into the database.
+     *
+     * @param startTime the start time of the required availability
+     * @param endTime the end time of the required availability
+     * @param professionalsRequired the number of professionals required
+     * @return a list of available cleaning professionals
+     */
+    private List<CleaningProfessional> findAvailableInDatabase(LocalDateTime startTime, LocalDateTime endTime, int professionalsRequired) {
+        return findAvailableInDatabase(startTime, endTime, professionalsRequired, null);
+    }
+
+    /**
+     * Same as {@link #findAvailableInDatabase(LocalDateTime, LocalDateTime, int)}, for the team of a booking being
+     * rescheduled. The slots the booking already reserves are left out of the check: on its team they can only be
+     * reserved by the booking itself, since reservations never share a slot.
+     *
+     * @param startTime the start time of the required availability
+     * @param endTime the end time of the required availability
+     * @param professionalsRequired the number of professionals required
+     * @param rescheduled the booking at its current time, or null
+     * @return a list of available cleaning professionals, only meaningful for the team of the rescheduled booking
+     */
+    private List<CleaningProfessional> findAvailableInDatabase(LocalDateTime startTime, LocalDateTime endTime, int professionalsRequired,
+                                                               Booking rescheduled) {
+        DayOfWeek day = startTime.getDayOfWeek();
+        int startMinute = startTime.getHour() * 60 + startTime.getMinute();
+        int endMinute = startMinute + (int) Duration.between(startTime, endTime).toMinutes();
+        // A booking ending at midnight ends after every working hours, not before them
+        String endClock = endMinute == 24 * 60 ? "24:00" : endTime.toLocalTime().toString();
+        LocalDate startDay = startTime.toLocalDate();
+        Map<LocalDate, Long> slots = reservedSlotsByDay(startTime, endTime);
+        if (rescheduled != null) {
+            Map<LocalDate, Long> reserved = reservedSlotsByDay(rescheduled.getStartTime(), rescheduled.getEndTime());
+            slots.replaceAll((slotDay, daySlots) -> daySlots & ~reserved.getOrDefault(slotDay, 0L));
+        }
+        return professionalRepository.findAvailable(day, day == DayOfWeek.FRIDAY, startMinute, endMinute,
+                startTime.toLocalTime().toString(), endClock,
+                startDay, slots.get(startDay), startDay.plusDays(1), slots.getOrDefault(startDay.plusDays(1), 0L),
+                Limit.of(professionalsRequired));
+    }
+
+    /**
+     * Checks if a cleaning professional is available on a given date.
+     *
+     * @param professional the cleaning professional to check availability for
+     * @param startOfDay the start of the day to check availability from
+     * @param endOfDay the end of the day to check availability until
+     * @return true if the professional is available on the given date, false otherwise
+     */
+    private boolean isAvailableOnDate(CleaningProfessional professional, LocalDateTime startOfDay, LocalDateTime endOfDay) {
+        // Check if the professional is working on the given day and hours
+        if (!shiftCalendar.isWorking(professional, startOfDay, endOfDay)) {
+            return false;
         }
 
-        return true;
+        // Check for existing bookings and ensure a 30-minute break
+        return scheduleIndex.isFree(professional.getId(), startOfDay, endOfDay);
     }
 
     /**
@@ -118,52 +453,241 @@ public class AvailabilityCheckService {
      * @return true if the professional is available for the given time range, false otherwise
      */
     private boolean isAvailable(CleaningProfessional professional, LocalDateTime startTime, LocalDateTime endTime) {
-        // Check if the professional is working on the given day
-        boolean isWorkingDay = professional.isWorkingOnFridays() || startTime.getDayOfWeek().getValue() != 5;
+        return isAvailable(professional, startTime, endTime, null);
+    }
 
-        if (!isWorkingDay) {
+    private boolean isAvailable(CleaningProfessional professional, LocalDateTime startTime, LocalDateTime endTime, Long ignoredBookingId) {
+        // Check if the professional is working on the given day and hours
+        if (!shiftCalendar.isWorking(professional, startTime, endTime)) {
             return false;
         }
 
-        // Check working hours
-        String[] workingHours = professional.getWorkingHours().split("-");
-        LocalTime startWorkTime = LocalTime.parse(workingHours[0]);
-        LocalTime endWorkTime = LocalTime.parse(workingHours[1]);
+        // Check for existing bookings and ensure a 30-minute break
+        return scheduleIndex.isFree(professional.getId(), startTime, endTime, ignoredBookingId);
+    }
 
-        boolean isWithinWorkingHours = !startTime.toLocalTime().isBefore(startWorkTime) && !endTime.toLocalTime().isAfter(endWorkTime);
+    /**
+     * Updates the availability of professionals after a booking is created.
+     *
+     * @param professionals the list of professionals to update
+     * @param booking the booking information
+     */
+    public void updateProfessionalsAvailability(List<CleaningProfessional> professionals, Booking booking) {
+        updateProfessionalsAvailability(List.of(new Assignment(booking, professionals)));
+    }
 
-        if (!isWithinWorkingHours) {
-            return false;
+    /**
+     * Updates the availability of professionals after several bookings are created, writing the booking details and
+     * slot reservations of all of them in one batch each, then adding the reserved slots to the occupancy bitmaps.
+     *
+     * @param assignments the saved bookings with the professionals assigned to them
+     */
+    public void updateProfessionalsAvailability(List<Assignment> assignments) {
+        List<BookingDetail> bookingDetails = new ArrayList<>();
+        List<ProfessionalSlotReservation> reservations = new ArrayList<>();
+        Map<ProfessionalDayOccupancy.Key, Long> occupiedSlots = new LinkedHashMap<>();
+        for (Assignment assignment : assignments) {
+            Booking booking = assignment.booking();
+            List<LocalDateTime> slots = reservedSlots(booking);
+            Map<LocalDate, Long> slotsByDay = reservedSlotsByDay(booking.getStartTime(), booking.getEndTime());
+            for (CleaningProfessional professional : assignment.professionals()) {
+                BookingDetail bookingDetail = new BookingDetail();
+                bookingDetail.setBooking(booking);
+                bookingDetail.setCleaningProfessional(professional);
+                bookingDetail.setStartTime(booking.getStartTime());
+                bookingDetails.add(bookingDetail);
+
+                for (LocalDateTime slot : slots) {
+                    reservations.add(new ProfessionalSlotReservation(professional.getId(), slot, booking.getId()));
+                }
+                slotsByDay.forEach((day, daySlots) ->
+                        occupiedSlots.merge(new ProfessionalDayOccupancy.Key(day, professional.getId()), daySlots, (a, b) -> a | b));
+            }
         }
+        bookingDetailRepository.saveAll(bookingDetails);
 
-        // Check for existing bookings and ensure a 30-minute break
-        List<BookingDetail> bookingDetails = bookingDetailRepository.findByCleaningProfessionalIdAndBookingStartTimeBetween(
-                professional.getId(), startTime.toLocalDate().atStartOfDay(), endTime.toLocalDate().atTime(23, 59));
+        // Fails with a duplicate key when a professional was booked concurrently, even by another instance
+        slotReservationRepository.saveAll(reservations);
+        slotReservationRepository.flush();
+
+        occupy(occupiedSlots);
 
-        for (BookingDetail bookingDetail : bookingDetails) {
-            LocalDateTime bookingStart = bookingDetail.getBooking().getStartTime();
-            LocalDateTime bookingEnd = bookingDetail.getBooking().getEndTime();
+        for (Assignment assignment : assignments) {
+            Booking booking = assignment.booking();
+            List<Long> professionalIds = assignment.professionals().stream()
+                    .map(CleaningProfessional::getId)
+                    .collect(Collectors.toList());
+            scheduleIndex.recordAfterCommit(booking.getId(), booking.getStartTime(), booking.getEndTime(), professionalIds);
+            availabilityCache.invalidateAfterCommit(booking.getStartTime().minus(ProfessionalScheduleIndex.BREAK),
+                    booking.getEndTime().plus(ProfessionalScheduleIndex.BREAK));
+            readReplicaRouter.recordWriteAfterCommit(booking.getStartTime().minus(ProfessionalScheduleIndex.BREAK),
+                    booking.getEndTime().plus(ProfessionalScheduleIndex.BREAK));
+        }
+    }
+
+    /**
+     * Adds reserved slots to the occupancy bitmaps of the professionals, with one upsert per professional and day, so
+     * the first booking of a day never collides with a concurrent one on inserting its row.
+     *
+     * @param occupiedSlots the bitmask of the newly reserved slots by professional and day
+     */
+    private void occupy(Map<ProfessionalDayOccupancy.Key, Long> occupiedSlots) {
+        occupiedSlots.forEach((key, slots) -> dayOccupancyRepository.occupy(key.getProfessionalId(), key.getDay(), slots));
+    }
+
+    /**
+     * Updates the availability of professionals after a booking is rescheduled, writing only the rows that change:
+     * the booking details of the professionals leaving and joining the team, and the slots each professional gives up
+     * or takes on. A professional staying on the booking at the same time keeps all of its rows.
+     *
+     * @param current the booking at its previous time, with its previous team
+     * @param rescheduled the saved booking at its new time, with its new team
+     */
+    public void rescheduleProfessionals(Assignment current, Assignment rescheduled) {
+        Booking booking = rescheduled.booking();
+        Set<Long> previousTeam = current.professionals().stream().map(CleaningProfessional::getId).collect(Collectors.toSet());
+        Set<Long> team = rescheduled.professionals().stream().map(CleaningProfessional::getId).collect(Collectors.toSet());
+        List<Long> leaving = previousTeam.stream().filter(id -> !team.contains(id)).toList();
+        List<Long> staying = previousTeam.stream().filter(team::contains).toList();
 
-            if (startTime.isBefore(bookingEnd.plusMinutes(30)) && endTime.isAfter(bookingStart.minusMinutes(30))) {
-                return false;
+        Set<LocalDateTime> previousSlots = new HashSet<>(reservedSlots(current.booking()));
+        List<LocalDateTime> slots = reservedSlots(booking);
+        List<LocalDateTime> keptSlots = slots.stream().filter(previousSlots::contains).toList();
+        Map<LocalDate, Long> previousSlotsByDay = reservedSlotsByDay(current.booking().getStartTime(), current.booking().getEndTime());
+        Map<LocalDate, Long> slotsByDay = reservedSlotsByDay(booking.getStartTime(), booking.getEndTime());
+
+        if (staying.isEmpty()) {
+            bookingDetailRepository.deleteByBookingId(booking.getId());
+        } else if (!leaving.isEmpty()) {
+            bookingDetailRepository.deleteByBookingIdAndProfessionalIds(booking.getId(), leaving);
+        }
+        if (!staying.isEmpty() && !booking.getStartTime().equals(current.booking().getStartTime())) {
+            bookingDetailRepository.updateStartTime(booking.getId(), booking.getStartTime());
+        }
+        if (staying.isEmpty() || keptSlots.isEmpty()) {
+            slotReservationRepository.deleteByBookingId(booking.getId());
+        } else if (!leaving.isEmpty() || keptSlots.size() < previousSlots.size()) {
+            slotReservationRepository.deleteAllExcept(booking.getId(), staying, keptSlots);
+        }
+
+        List<BookingDetail> bookingDetails = new ArrayList<>();
+        List<ProfessionalSlotReservation> reservations = new ArrayList<>();
+        Map<ProfessionalDayOccupancy.Key, Long> vacatedSlots = new LinkedHashMap<>();
+        Map<ProfessionalDayOccupancy.Key, Long> occupiedSlots = new LinkedHashMap<>();
+        for (Long professionalId : leaving) {
+            addSlots(vacatedSlots, professionalId, previousSlotsByDay, Map.of());
+        }
+        for (CleaningProfessional professional : rescheduled.professionals()) {
+            boolean stays = previousTeam.contains(professional.getId());
+            if (stays) {
+                addSlots(vacatedSlots, professional.getId(), previousSlotsByDay, slotsByDay);
+            } else {
+                BookingDetail bookingDetail = new BookingDetail();
+                bookingDetail.setBooking(booking);
+                bookingDetail.setCleaningProfessional(professional);
+                bookingDetail.setStartTime(booking.getStartTime());
+                bookingDetails.add(bookingDetail);
+            }
+            addSlots(occupiedSlots, professional.getId(), slotsByDay, stays ? previousSlotsByDay : Map.of());
+
+            for (LocalDateTime slot : slots) {
+                if (!stays || !previousSlots.contains(slot)) {
+                    reservations.add(new ProfessionalSlotReservation(professional.getId(), slot, booking.getId()));
+                }
             }
         }
+        bookingDetailRepository.saveAll(bookingDetails);
+
+        // Fails with a duplicate key when a joining professional was booked concurrently, even by another instance
+        slotReservationRepository.saveAll(reservations);
+        slotReservationRepository.flush();
 
-        return true;
+        vacatedSlots.forEach((key, vacated) -> dayOccupancyRepository.vacate(key.getProfessionalId(), key.getDay(), vacated));
+        occupy(occupiedSlots);
+
+        scheduleIndex.recordAfterCommit(booking.getId(), booking.getStartTime(), booking.getEndTime(), team);
+        availabilityCache.invalidateAfterCommit(current.booking().getStartTime().minus(ProfessionalScheduleIndex.BREAK),
+                current.booking().getEndTime().plus(ProfessionalScheduleIndex.BREAK));
+        availabilityCache.invalidateAfterCommit(booking.getStartTime().minus(ProfessionalScheduleIndex.BREAK),
+                booking.getEndTime().plus(ProfessionalScheduleIndex.BREAK));
+        readReplicaRouter.recordWriteAfterCommit(current.booking().getStartTime().minus(ProfessionalScheduleIndex.BREAK),
+                current.booking().getEndTime().plus(ProfessionalScheduleIndex.BREAK));
+        readReplicaRouter.recordWriteAfterCommit(booking.getStartTime().minus(ProfessionalScheduleIndex.BREAK),
+                booking.getEndTime().plus(ProfessionalScheduleIndex.BREAK));
     }
 
     /**
-     * Updates the availability of professionals after a booking is created.
+     * Adds the slots of a professional that are not kept to a bitmask by professional and day, leaving out empty masks.
+     */
+    private static void addSlots(Map<ProfessionalDayOccupancy.Key, Long> slotsByKey, Long professionalId,
+                                 Map<LocalDate, Long> slotsByDay, Map<LocalDate, Long> keptSlotsByDay) {
+        slotsByDay.forEach((day, daySlots) -> {
+            long changed = daySlots & ~keptSlotsByDay.getOrDefault(day, 0L);
+            if (changed != 0) {
+                slotsByKey.put(new ProfessionalDayOccupancy.Key(day, professionalId), changed);
+            }
+        });
+    }
+
+    /**
+     * Lists the slots a booking holds, from the slot it starts in up to the end of the break after it. Only the break
+     * after a booking is reserved, so two bookings exactly one break apart do not collide. New bookings start on a
+     * slot; the slot of an earlier one that did not is rounded down.
      *
-     * @param professionals the list of professionals to update
      * @param booking the booking information
+     * @return the start times of the reserved slots
      */
-    public void updateProfessionalsAvailability(List<CleaningProfessional> professionals, Booking booking) {
-        for (CleaningProfessional professional : professionals) {
-            BookingDetail bookingDetail = new BookingDetail();
-            bookingDetail.setBooking(booking);
-            bookingDetail.setCleaningProfessional(professional);
-            bookingDetailRepository.save(bookingDetail);
+    private static List<LocalDateTime> reservedSlots(Booking booking) {
+        LocalDateTime startTime = booking.getStartTime();
+        LocalDateTime end = booking.getEndTime().plus(ProfessionalScheduleIndex.BREAK);
+        LocalDateTime slot = startTime.truncatedTo(ChronoUnit.MINUTES)
+                .withMinute(startTime.getMinute() / WeeklyShiftCalendar.SLOT_MINUTES * WeeklyShiftCalendar.SLOT_MINUTES);
+
+        List<LocalDateTime> slots = new ArrayList<>();
+        for (; slot.isBefore(end); slot = slot.plusMinutes(WeeklyShiftCalendar.SLOT_MINUTES)) {
+            slots.add(slot);
         }
+        return slots;
+    }
+
+    /**
+     * Same slots as {@link #reservedSlots}, as one bitmask per day they fall on. A booking reserves slots of the next
+     * day when it or its break runs past midnight.
+     *
+     * @param startTime the start time of the booking
+     * @param endTime the end time of the booking
+     * @return the bitmask of the reserved slots by day, in day order
+     */
+    public static Map<LocalDate, Long> reservedSlotsByDay(LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDateTime end = endTime.plus(ProfessionalScheduleIndex.BREAK);
+        Map<LocalDate, Long> slotsByDay = new LinkedHashMap<>();
+        for (LocalDate day = startTime.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            slotsByDay.put(day, WeeklyShiftCalendar.touchedSlots(day.atStartOfDay(), startTime, end));
+        }
+        return slotsByDay;
+    }
+
+    /**
+     * The time range an availability check covers.
+     */
+    private record Window(LocalDateTime startTime, LocalDateTime endTime, int professionalsRequired) {
+
+        /**
+         * The requested time range and team size, decided like {@code GET /bookings/availability} does: one professional
+         * unless told otherwise, and the working day unless both a start time and a duration are given.
+         */
+        static Window of(AvailabilityQuery query) {
+            int professionalsRequired = query.getProfessionalsRequired() != null ? query.getProfessionalsRequired() : 1;
+            if (query.getStartTime() == null || query.getDuration() == null) {
+                return new Window(query.getDate().atTime(8, 0), query.getDate().atTime(22, 0), professionalsRequired);
+            }
+            return new Window(query.getStartTime(), query.getStartTime().plusHours(query.getDuration()), professionalsRequired);
+        }
+    }
+
+    /**
+     * A saved booking together with the professionals assigned to it.
+     */
+    public record Assignment(Booking booking, List<CleaningProfessional> professionals) {
     }
 }
@@ -0,0 +1,405 @@
+package com.justlife.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of the bookings made by this instance, in a local memory-mapped file, so that the
+ * {@link ProfessionalScheduleIndex} is rebuilt on startup by reading one file sequentially instead of every booking
+ * detail through JPA. Enabled by setting {@code justlife.booking.journal.path}.
+ * <p>
+ * Every committed create or update appends one record holding the time range of the booking and its whole team, so
+ * the latest record of a booking describes it completely. Records are appended after their transaction commits, so
+ * two updates of one booking may be appended in the opposite order they committed in; each record carries a sequence
+ * number taken inside its transaction, while the booking's row is locked, and the record of a booking with the
+ * highest one is its latest. Records are checksummed, and reading stops at the first one that does not check out: the
+ * tail of an append cut short by a crash. Every {@code justlife.booking.journal.compact-interval} the file is
+ * rewritten with only the latest record of each booking that ended within {@code justlife.booking.journal.retention},
+ * so its size, and the time to replay it, follow the bookings still relevant rather than the whole history.
+ * <p>
+ * The journal only sees the bookings of this instance, not changes made to the database otherwise: it has to be
+ * deleted whenever the database is replaced, and is of no use with several instances.
+ */
+@Component
+public class BookingJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingJournal.class);
+
+    private static final int MAGIC = 0x4A4C424A;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    /**
+     * Sequence, type, booking id, start in epoch seconds, duration in seconds, team size and checksum, the team ids
+     * come between the team size and the checksum.
+     */
+    private static final int RECORD_FIXED_SIZE = Long.BYTES + Byte.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES + Byte.BYTES + Integer.BYTES;
+    private static final int MAX_TEAM_SIZE = 255;
+    private static final int MAX_RECORD_SIZE = RECORD_FIXED_SIZE + MAX_TEAM_SIZE * Long.BYTES;
+    /**
+     * How much the file is extended by when the mapping is full.
+     */
+    private static final int GROWTH = 16 << 20;
+
+    private final Path path;
+    private final Duration retention;
+    private final Duration compactInterval;
+    /**
+     * Sequence number of the last record taken, continued from the highest one in the file.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private ScheduledExecutorService compaction;
+
+    public BookingJournal(@Value("${justlife.booking.journal.path:}") String path,
+                          @Value("${justlife.booking.journal.retention:30d}") Duration retention,
+                          @Value("${justlife.booking.journal.compact-interval:1h}") Duration compactInterval) {
+        this.path = path.isEmpty() ? null : Path.of(path);
+        this.retention = retention;
+        this.compactInterval = compactInterval;
+    }
+
+    /**
+     * Maps the journal, creating it if needed, and finds the end of its last complete record.
+     */
+    @PostConstruct
+    public synchronized void open() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            if (path.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(path.toAbsolutePath().getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), GROWTH));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the booking journal " + path, e);
+        }
+
+        if (buffer.getInt(0) == 0 && buffer.getInt(Integer.BYTES) == 0) {
+            buffer.putInt(0, MAGIC).putInt(Integer.BYTES, VERSION);
+        } else if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IllegalStateException("Not a booking journal of version " + VERSION + ": " + path);
+        }
+
+        ByteBuffer view = buffer.duplicate().position(HEADER_SIZE);
+        int end = HEADER_SIZE;
+        for (Entry entry = read(view); entry != null; entry = read(view)) {
+            sequence.accumulateAndGet(entry.sequence(), Math::max);
+            end = view.position();
+        }
+        // Appends are sequential, so anything after the last complete record is what is left of one torn record
+        for (int i = end; i < Math.min(end + MAX_RECORD_SIZE, buffer.capacity()); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.position(end);
+
+        if (!compactInterval.isZero()) {
+            compaction = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "booking-journal-compaction");
+                thread.setDaemon(true);
+                return thread;
+            });
+            compaction.scheduleWithFixedDelay(this::compactQuietly, compactInterval.toMillis(), compactInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (compaction != null) {
+            compaction.shutdownNow();
+        }
+        if (channel != null) {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close the booking journal " + path, e);
+            }
+            channel = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    /**
+     * Whether the journal holds at least one booking to replay.
+     */
+    public synchronized boolean hasEntries() {
+        return isEnabled() && buffer.position() > HEADER_SIZE;
+    }
+
+    /**
+     * Appends a booking to the journal once the surrounding transaction commits, so that rolled back bookings are
+     * never replayed. Does nothing when the journal is disabled. The record's sequence number is taken now, so an
+     * update has to be journaled while the transaction holds the lock on the booking.
+     *
+     * @param type whether the booking was created or updated
+     * @param bookingId the id of the booking
+     * @param startTime the start time of the booking
+     * @param endTime the end time of the booking
+     * @param professionalIds the ids of all the professionals assigned to the booking
+     */
+    public void appendAfterCommit(Type type, Long bookingId, LocalDateTime startTime, LocalDateTime endTime,
+                                  Collection<Long> professionalIds) {
+        if (!isEnabled()) {
+            return;
+        }
+        Entry entry = new Entry(sequence.incrementAndGet(), type, bookingId, startTime, endTime, List.copyOf(professionalIds));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(entry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                append(entry);
+            }
+        });
+    }
+
+    /**
+     * Appends a booking to the journal.
+     *
+     * @param entry the booking with its whole team
+     */
+    public synchronized void append(Entry entry) {
+        ensureCapacity(sizeOf(entry));
+        write(buffer, entry);
+    }
+
+    /**
+     * Reads the latest record of every booking in the journal, the one with the highest sequence number, in sequence
+     * order.
+     *
+     * @param consumer receives the records
+     * @return the number of records read
+     */
+    public synchronized int replay(Consumer<Entry> consumer) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        Map<Long, Entry> latest = new HashMap<>();
+        ByteBuffer view = buffer.duplicate().position(HEADER_SIZE).limit(buffer.position());
+        for (Entry entry = read(view); entry != null; entry = read(view)) {
+            latest.merge(entry.bookingId(), entry, (kept, read) -> read.sequence() > kept.sequence() ? read : kept);
+        }
+        List<Entry> entries = new ArrayList<>(latest.values());
+        entries.sort(Comparator.comparingLong(Entry::sequence));
+        entries.forEach(consumer);
+        return entries.size();
+    }
+
+    /**
+     * Rewrites the journal with the last record of each booking that ended within the retention.
+     *
+     * @return the number of records kept
+     */
+    public synchronized int compact() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        LocalDateTime horizon = LocalDateTime.now().minus(retention);
+        List<Entry> kept = new ArrayList<>();
+        replay(entry -> {
+            if (entry.endTime().isAfter(horizon)) {
+                kept.add(entry);
+            }
+        });
+        rewrite(kept);
+        return kept.size();
+    }
+
+    /**
+     * Compaction run by the schedule. A failure is logged and left to the next run instead of cancelling them all.
+     */
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            log.error("Cannot compact the booking journal {}", path, e);
+        }
+    }
+
+    /**
+     * Replaces the content of the journal. The new content is written to a file next to it, which then takes its
+     * place, so a crash leaves either the old or the new journal.
+     *
+     * @param entries the records of the new journal
+     */
+    public synchronized void rewrite(Collection<Entry> entries) {
+        if (!isEnabled()) {
+            return;
+        }
+        long size = HEADER_SIZE + entries.stream().mapToLong(BookingJournal::sizeOf).sum();
+        Path compacted = path.resolveSibling(path.getFileName() + ".compacting");
+        try {
+            FileChannel compactedChannel = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer compactedBuffer = compactedChannel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize(size + GROWTH));
+            compactedBuffer.putInt(MAGIC).putInt(VERSION);
+            for (Entry entry : entries) {
+                write(compactedBuffer, entry);
+            }
+            compactedBuffer.force();
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            channel.close();
+            channel = compactedChannel;
+            buffer = compactedBuffer;
+            entries.forEach(entry -> sequence.accumulateAndGet(entry.sequence(), Math::max));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rewrite the booking journal " + path, e);
+        }
+    }
+
+    /**
+     * Extends the file and maps it again when the next record does not fit.
+     */
+    private void ensureCapacity(int recordSize) {
+        if (buffer.remaining() >= recordSize) {
+            return;
+        }
+        int position = buffer.position();
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize((long) position + recordSize + GROWTH));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot extend the booking journal " + path, e);
+        }
+        buffer.position(position);
+    }
+
+    private long mappedSize(long size) {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The booking journal " + path + " is full, lower justlife.booking.journal.retention");
+        }
+        return size;
+    }
+
+    private static int sizeOf(Entry entry) {
+        return RECORD_FIXED_SIZE + Long.BYTES * entry.professionalIds().size();
+    }
+
+    private static void write(ByteBuffer target, Entry entry) {
+        if (entry.professionalIds().size() > MAX_TEAM_SIZE) {
+            throw new IllegalArgumentException("A booking journal record holds at most " + MAX_TEAM_SIZE + " professionals");
+        }
+        int start = target.position();
+        target.putLong(entry.sequence())
+                .put(entry.type().code)
+                .putLong(entry.bookingId())
+                .putLong(entry.startTime().toEpochSecond(ZoneOffset.UTC))
+                .putInt((int) Duration.between(entry.startTime(), entry.endTime()).toSeconds())
+                .put((byte) entry.professionalIds().size());
+        for (Long professionalId : entry.professionalIds()) {
+            target.putLong(professionalId);
+        }
+        target.putInt(checksum(target, start, target.position()));
+    }
+
+    /**
+     * Reads the record at the position of a buffer, moving past it.
+     *
+     * @return the record, or null at the end of the journal or when the record is incomplete
+     */
+    private static Entry read(ByteBuffer view) {
+        int start = view.position();
+        if (view.remaining() < RECORD_FIXED_SIZE) {
+            return null;
+        }
+        long sequence = view.getLong();
+        Type type = Type.of(view.get());
+        if (type == null) {
+            return null;
+        }
+        long bookingId = view.getLong();
+        LocalDateTime startTime = LocalDateTime.ofEpochSecond(view.getLong(), 0, ZoneOffset.UTC);
+        LocalDateTime endTime = startTime.plusSeconds(view.getInt());
+        int teamSize = Byte.toUnsignedInt(view.get());
+        if (view.remaining() < teamSize * Long.BYTES + Integer.BYTES) {
+            return null;
+        }
+        List<Long> professionalIds = new ArrayList<>(teamSize);
+        for (int i = 0; i < teamSize; i++) {
+            professionalIds.add(view.getLong());
+        }
+        if (view.getInt() != checksum(view, start, view.position() - Integer.BYTES)) {
+            return null;
+        }
+        return new Entry(sequence, type, bookingId, startTime, endTime, professionalIds);
+    }
+
+    private static int checksum(ByteBuffer buffer, int from, int to) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(from).limit(to));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A booking as recorded in the journal.
+     *
+     * @param sequence orders the records of a booking, the highest is its latest
+     * @param type whether the booking was created or updated
+     * @param bookingId the id of the booking
+     * @param startTime the start time of the booking
+     * @param endTime the end time of the booking
+     * @param professionalIds the ids of all the professionals assigned to the booking
+     */
+    public record Entry(long sequence, Type type, Long bookingId, LocalDateTime startTime, LocalDateTime endTime, List<Long> professionalIds) {
+    }
+
+    public enum Type {
+        CREATE(1),
+        UPDATE(2);
+
+        private final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        static Type of(byte code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.justlife.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Fixed set of locks that serializes bookings made on the same vehicle. Vehicles are hashed onto the stripes, so
+ * bookings on different vehicles almost never wait for each other while the memory used stays constant.
+ */
+@Component
+public class BookingLocks {
+
+    private final Lock[] stripes;
+
+    public BookingLocks(@Value("${justlife.booking.lock-stripes:64}") int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Invalid number of lock stripes. Must be at least 1.");
+        }
+        stripes = new Lock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Returns the lock guarding the bookings of a vehicle.
+     *
+     * @param vehicleId the id of the vehicle
+     * @return the lock of the stripe the vehicle belongs to
+     */
+    public Lock forVehicle(Long vehicleId) {
+        return stripes[stripeOf(vehicleId)];
+    }
+
+    /**
+     * Returns the locks guarding the bookings of several vehicles, each stripe once and in stripe order, so that
+     * callers taking them all in that order cannot deadlock each other.
+     *
+     * @param vehicleIds the ids of the vehicles
+     * @return the locks of the stripes the vehicles belong to
+     */
+    public List<Lock> forVehicles(Collection<Long> vehicleIds) {
+        return vehicleIds.stream()
+                .map(this::stripeOf)
+                .distinct()
+                .sorted()
+                .map(stripe -> stripes[stripe])
+                .collect(Collectors.toList());
+    }
+
+    private int stripeOf(Long vehicleId) {
+        return Math.floorMod(vehicleId.hashCode(), stripes.length);
+    }
+}
@@ -1,18 +1,39 @@
 package com.justlife.service;
 
+import com.justlife.dto.BookingAssignment;
+import com.justlife.dto.BookingBatchResult;
+import com.justlife.dto.BookingDetailCursor;
+import com.justlife.dto.BookingDetailPage;
 import com.justlife.model.Booking;
-import com.justlife.model.BookingDetail;
 import com.justlife.model.CleaningProfessional;
 import com.justlife.model.Vehicle;
 import com.justlife.repository.BookingDetailRepository;
 import com.justlife.repository.BookingRepository;
 import com.justlife.repository.CleaningProfessionalRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,7 +48,28 @@ public class BookingService {
     @Autowired
     private AvailabilityCheckService availabilityCheckService;
 
-    @Transactional
+    @Autowired
+    private CleaningProfessionalRepository professionalRepository;
+
+    @Autowired
+    private BookingLocks bookingLocks;
+
+    @Autowired
+    private IdGenerationLimiter idGenerationLimiter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookingJournal bookingJournal;
+
+    @Value("${justlife.booking.allocation-mode:striped-lock}")
+    private AllocationMode allocationMode = AllocationMode.STRIPED_LOCK;
+
+    @Timed(value = "justlife.booking", extraTags = {"operation", "create"}, histogram = true)
     public Booking createBooking(Booking booking) {
         validateBooking(booking);
 
@@ -35,55 +77,383 @@ public class BookingService {
         LocalDateTime endTime = startTime.plusHours(booking.getDuration());
         booking.setEndTime(endTime);
 
-        List<CleaningProfessional> availableProfessionals = availabilityCheckService.checkAvailabilityByDateTime(startTime, booking.getDuration(), booking.getProfessionalsRequired());
+        List<CleaningProfessional> availableProfessionals = availabilityCheckService.findAllAvailable(startTime, booking.getDuration());
+        return assignTeam(booking, availableProfessionals,
+                team -> availabilityCheckService.filterAvailable(team, startTime, booking.getDuration()), assignedProfessionals -> {
+            // A rolled back attempt on another vehicle may have assigned an id
+            booking.setId(null);
+            Booking savedBooking = bookingRepository.save(booking);
+
+            availabilityCheckService.updateProfessionalsAvailability(assignedProfessionals, savedBooking);
+            bookingJournal.appendAfterCommit(BookingJournal.Type.CREATE, savedBooking.getId(), savedBooking.getStartTime(),
+                    savedBooking.getEndTime(), ids(assignedProfessionals));
+
+            return savedBooking;
+        });
+    }
 
-        if (availableProfessionals.size() < booking.getProfessionalsRequired()) {
-            throw new IllegalStateException("Not enough professionals available for the requested time");
+    /**
+     * Creates several bookings in a single transaction. The professionals are loaded once for the whole batch and the
+     * bookings are checked in order, each against the database state and the bookings accepted before it in the same
+     * batch. A booking that cannot be served is rejected without affecting the others. The teams are guarded
+     * according to the allocation mode, like single bookings.
+     *
+     * @param bookings the bookings to create
+     * @return one result per booking, in the order the bookings were given
+     */
+    @Timed(value = "justlife.booking", extraTags = {"operation", "create-batch"}, histogram = true)
+    public List<BookingBatchResult> createBookings(List<Booking> bookings) {
+        List<CleaningProfessional> professionals = professionalRepository.findAll();
+        try {
+            return allocateBatch(bookings, professionals);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent booking from another instance took one of the assigned slots after the batch checked it
         }
+        try {
+            return allocateBatch(bookings, professionals);
+        } catch (DataIntegrityViolationException e) {
+            List<BookingBatchResult> results = new ArrayList<>();
+            for (int index = 0; index < bookings.size(); index++) {
+                results.add(BookingBatchResult.rejected(index, "Bookings were taken concurrently, please retry"));
+            }
+            return results;
+        }
+    }
 
-        Vehicle vehicle = availableProfessionals.get(0).getVehicle();
-        List<CleaningProfessional> assignedProfessionals = filterProfessionalsByVehicle(vehicle.getId(), availableProfessionals, booking.getProfessionalsRequired());
+    /**
+     * Allocates and saves a batch. With striped locks, the locks of every vehicle that may serve one of the bookings
+     * are held until the batch is committed, taken in stripe order so that concurrent batches cannot deadlock.
+     */
+    private List<BookingBatchResult> allocateBatch(List<Booking> bookings, List<CleaningProfessional> professionals) {
+        if (allocationMode == AllocationMode.SKIP_LOCKED) {
+            return executeWrite(status -> {
+                Set<Long> claimed = new HashSet<>();
+                return saveBatch(bookings, professionals, (team, booking) -> claimBatchTeam(team, booking, claimed));
+            });
+        }
 
-        Booking savedBooking = bookingRepository.save(booking);
+        Set<Long> vehicleIds = new HashSet<>();
+        for (Booking booking : bookings) {
+            if (isValid(booking)) {
+                availabilityCheckService.filterAvailable(professionals, booking.getStartTime(), booking.getDuration()).stream()
+                        .map(CleaningProfessional::getVehicle)
+                        .filter(Objects::nonNull)
+                        .forEach(vehicle -> vehicleIds.add(vehicle.getId()));
+            }
+        }
+        List<CleaningProfessional> lockedProfessionals = professionals.stream()
+                .filter(professional -> professional.getVehicle() != null && vehicleIds.contains(professional.getVehicle().getId()))
+                .collect(Collectors.toList());
 
-        availabilityCheckService.updateProfessionalsAvailability(assignedProfessionals, savedBooking);
+        List<Lock> locks = bookingLocks.forVehicles(vehicleIds);
+        int locked = 0;
+        try {
+            for (Lock lock : locks) {
+                lock.lock();
+                locked++;
+            }
+            return executeWrite(status -> saveBatch(bookings, lockedProfessionals, (team, booking) -> team));
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Assigns teams to the bookings of a batch in order and saves the ones that could be served, inside the
+     * transaction. The bookings accepted earlier in the batch are kept per professional, as they have no id yet.
+     *
+     * @param claim keeps the members of a team held for the booking, after the other members were checked
+     */
+    private List<BookingBatchResult> saveBatch(List<Booking> bookings, List<CleaningProfessional> professionals,
+                                               BiFunction<List<CleaningProfessional>, Booking, List<CleaningProfessional>> claim) {
+        Map<Long, List<Booking>> batchBookingsByProfessional = new HashMap<>();
+        List<AvailabilityCheckService.Assignment> assignments = new ArrayList<>();
+        List<BookingBatchResult> results = new ArrayList<>();
+
+        for (int index = 0; index < bookings.size(); index++) {
+            Booking booking = bookings.get(index);
+            try {
+                validateBooking(booking);
+                // A rolled back first attempt may have assigned an id
+                booking.setId(null);
+                booking.setEndTime(booking.getStartTime().plusHours(booking.getDuration()));
+
+                List<CleaningProfessional> availableProfessionals = availabilityCheckService
+                        .filterAvailable(professionals, booking.getStartTime(), booking.getDuration()).stream()
+                        .filter(professional -> isFreeInBatch(batchBookingsByProfessional.get(professional.getId()), booking))
+                        .collect(Collectors.toList());
+                List<CleaningProfessional> team = pickHeldTeam(availableProfessionals, booking, claim);
+
+                for (CleaningProfessional professional : team) {
+                    batchBookingsByProfessional.computeIfAbsent(professional.getId(), id -> new ArrayList<>()).add(booking);
+                }
+                assignments.add(new AvailabilityCheckService.Assignment(booking, team));
+                results.add(BookingBatchResult.created(index, booking));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                results.add(BookingBatchResult.rejected(index, e.getMessage()));
+            }
+        }
+
+        bookingRepository.saveAll(assignments.stream().map(AvailabilityCheckService.Assignment::booking).collect(Collectors.toList()));
+        availabilityCheckService.updateProfessionalsAvailability(assignments);
+        for (AvailabilityCheckService.Assignment assignment : assignments) {
+            Booking booking = assignment.booking();
+            bookingJournal.appendAfterCommit(BookingJournal.Type.CREATE, booking.getId(), booking.getStartTime(),
+                    booking.getEndTime(), ids(assignment.professionals()));
+        }
+
+        return results;
+    }
+
+    /**
+     * Checks that a booking keeps the break with the bookings a professional was given earlier in the batch.
+     */
+    private static boolean isFreeInBatch(List<Booking> batchBookings, Booking booking) {
+        if (batchBookings == null) {
+            return true;
+        }
+        LocalDateTime paddedStart = booking.getStartTime().minus(ProfessionalScheduleIndex.BREAK);
+        LocalDateTime paddedEnd = booking.getEndTime().plus(ProfessionalScheduleIndex.BREAK);
+        return batchBookings.stream().noneMatch(batchBooking ->
+                batchBooking.getStartTime().isBefore(paddedEnd) && paddedStart.isBefore(batchBooking.getEndTime()));
+    }
+
+    /**
+     * Picks a team and holds it, picking again without the members that could not be held until a team is held.
+     */
+    private List<CleaningProfessional> pickHeldTeam(List<CleaningProfessional> availableProfessionals, Booking booking,
+                                                    BiFunction<List<CleaningProfessional>, Booking, List<CleaningProfessional>> claim) {
+        List<CleaningProfessional> remaining = new ArrayList<>(availableProfessionals);
+        while (true) {
+            List<CleaningProfessional> team = pickTeam(remaining, booking.getProfessionalsRequired());
+            Set<Long> held = claim.apply(team, booking).stream().map(CleaningProfessional::getId).collect(Collectors.toSet());
+            if (held.size() == team.size()) {
+                return team;
+            }
+            Set<Long> lost = ids(team).stream().filter(id -> !held.contains(id)).collect(Collectors.toSet());
+            remaining.removeIf(professional -> lost.contains(professional.getId()));
+        }
+    }
+
+    /**
+     * Locks the rows of the members of a team, skipping members whose rows are locked by concurrent bookings, and
+     * keeps the ones still available. Rows already locked by the batch are not locked again.
+     */
+    private List<CleaningProfessional> claimBatchTeam(List<CleaningProfessional> team, Booking booking, Set<Long> claimed) {
+        List<CleaningProfessional> locked = team.stream()
+                .filter(professional -> claimed.contains(professional.getId())
+                        || professionalRepository.claimSkipLocked(professional.getId()).isPresent())
+                .collect(Collectors.toList());
+        locked.forEach(professional -> claimed.add(professional.getId()));
+        return availabilityCheckService.filterAvailable(locked, booking.getStartTime(), booking.getDuration());
+    }
 
-        return savedBooking;
+    private List<CleaningProfessional> pickTeam(List<CleaningProfessional> availableProfessionals, int professionalsRequired) {
+        if (availableProfessionals.size() < professionalsRequired) {
+            throw reject(Rejection.NOT_ENOUGH_PROFESSIONALS);
+        }
+        return groupTeams(availableProfessionals, professionalsRequired).stream()
+                .findFirst()
+                .map(team -> team.subList(0, professionalsRequired))
+                .orElseThrow(() -> reject(Rejection.NOT_ENOUGH_ON_SAME_VEHICLE));
     }
 
-    @Transactional
+    /**
+     * Moves a booking to a new time or team size. The booking's own slots do not count as conflicts, and the members
+     * of its current team are kept as long as they are still free, so that only the changed booking details and
+     * slots are written. The changes are computed from the booking as read here, so the update is rejected when the
+     * booking is updated concurrently.
+     *
+     * @param bookingId the id of the booking
+     * @param updatedBooking the new start time, duration and number of professionals of the booking
+     * @return the saved booking
+     */
+    @Timed(value = "justlife.booking", extraTags = {"operation", "update"}, histogram = true)
     public Booking updateBooking(Long bookingId, Booking updatedBooking) {
         validateBooking(updatedBooking);
 
         Booking existingBooking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new IllegalStateException("Booking not found"));
+        // A copy, since the attempts below update the booking itself
+        AvailabilityCheckService.Assignment current = new AvailabilityCheckService.Assignment(
+                copyOf(existingBooking), professionalRepository.findByBookingId(bookingId));
 
         LocalDateTime startTime = updatedBooking.getStartTime();
         LocalDateTime endTime = startTime.plusHours(updatedBooking.getDuration());
         updatedBooking.setEndTime(endTime);
+        int duration = updatedBooking.getDuration();
+
+        // The current team comes first, so its vehicle is tried first and its members are picked before the others
+        Set<Long> currentTeam = current.professionals().stream().map(CleaningProfessional::getId).collect(Collectors.toSet());
+        List<CleaningProfessional> availableProfessionals = new ArrayList<>(
+                availabilityCheckService.filterAvailable(current.professionals(), startTime, duration, current));
+        availabilityCheckService.findAllAvailable(startTime, duration).stream()
+                .filter(professional -> !currentTeam.contains(professional.getId()))
+                .forEach(availableProfessionals::add);
+
+        return assignTeam(updatedBooking, availableProfessionals, team -> {
+            lockUnchanged(current.booking());
+            return availabilityCheckService.filterAvailable(team, startTime, duration, current);
+        }, assignedProfessionals -> {
+            existingBooking.setStartTime(updatedBooking.getStartTime());
+            existingBooking.setEndTime(updatedBooking.getEndTime());
+            existingBooking.setDuration(updatedBooking.getDuration());
+            existingBooking.setProfessionalsRequired(updatedBooking.getProfessionalsRequired());
 
-        List<CleaningProfessional> availableProfessionals = availabilityCheckService.checkAvailabilityByDateTime(startTime, updatedBooking.getDuration(), updatedBooking.getProfessionalsRequired());
+            Booking savedBooking = bookingRepository.save(existingBooking);
+
+            availabilityCheckService.rescheduleProfessionals(current,
+                    new AvailabilityCheckService.Assignment(savedBooking, assignedProfessionals));
+            bookingJournal.appendAfterCommit(BookingJournal.Type.UPDATE, savedBooking.getId(), savedBooking.getStartTime(),
+                    savedBooking.getEndTime(), ids(assignedProfessionals));
+
+            return savedBooking;
+        });
+    }
 
-        if (availableProfessionals.size() < updatedBooking.getProfessionalsRequired()) {
-            throw new IllegalStateException("Not enough professionals available for the requested time");
+    /**
+     * Locks the row of a booking until the transaction ends, checking that it was not updated since it was read.
+     */
+    private void lockUnchanged(Booking booking) {
+        Booking locked = bookingRepository.lockById(booking.getId())
+                .orElseThrow(() -> new IllegalStateException("Booking not found"));
+        if (!locked.getStartTime().equals(booking.getStartTime()) || !locked.getEndTime().equals(booking.getEndTime())
+                || locked.getProfessionalsRequired() != booking.getProfessionalsRequired()) {
+            throw new IllegalStateException("Booking was updated concurrently, please retry");
         }
+    }
 
-        Vehicle vehicle = availableProfessionals.get(0).getVehicle();
-        List<CleaningProfessional> assignedProfessionals = filterProfessionalsByVehicle(vehicle.getId(), availableProfessionals, updatedBooking.getProfessionalsRequired());
+    private static List<Long> ids(List<CleaningProfessional> professionals) {
+        return professionals.stream().map(CleaningProfessional::getId).collect(Collectors.toList());
+    }
 
-        existingBooking.setStartTime(updatedBooking.getStartTime());
-        existingBooking.setEndTime(updatedBooking.getEndTime());
-        existingBooking.setDuration(updatedBooking.getDuration());
-        existingBooking.setProfessionalsRequired(updatedBooking.getProfessionalsRequired());
+    private static Booking copyOf(Booking booking) {
+        Booking copy = new Booking();
+        copy.setId(booking.getId());
+        copy.setStartTime(booking.getStartTime());
+        copy.setEndTime(booking.getEndTime());
+        copy.setDuration(booking.getDuration());
+        copy.setProfessionalsRequired(booking.getProfessionalsRequired());
+        return copy;
+    }
 
-        Booking savedBooking = bookingRepository.save(existingBooking);
+    /**
+     * Assigns a team from a single vehicle to a booking and saves it, trying the vehicles with enough available
+     * professionals in turn. Each attempt runs in its own transaction and checks the team again, guarded according
+     * to the allocation mode. Bookings made by other instances are caught by the slot reservations, in which case the
+     * next vehicle is tried.
+     *
+     * @param booking the booking to assign professionals to
+     * @param availableProfessionals the professionals available for the booking, in order of preference
+     * @param stillAvailable keeps the members of a team still available, inside the transaction
+     * @param save saves the booking with the assigned professionals, inside the transaction
+     * @return the saved booking
+     */
+    private Booking assignTeam(Booking booking, List<CleaningProfessional> availableProfessionals,
+                               UnaryOperator<List<CleaningProfessional>> stillAvailable,
+                               Function<List<CleaningProfessional>, Booking> save) {
+        int professionalsRequired = booking.getProfessionalsRequired();
 
-        availabilityCheckService.updateProfessionalsAvailability(assignedProfessionals, savedBooking);
+        if (availableProfessionals.size() < professionalsRequired) {
+            throw reject(Rejection.NOT_ENOUGH_PROFESSIONALS);
+        }
 
-        return savedBooking;
+        for (List<CleaningProfessional> team : groupTeams(availableProfessionals, professionalsRequired)) {
+            try {
+                Booking savedBooking = allocationMode == AllocationMode.SKIP_LOCKED
+                        ? executeWrite(status -> saveTeam(claimTeam(team, booking, stillAvailable), booking, save))
+                        : saveTeamLocked(team, booking, stillAvailable, save);
+                if (savedBooking != null) {
+                    return savedBooking;
+                }
+            } catch (DataIntegrityViolationException e) {
+                // The slot reservations of the team collided with a concurrent booking, try the next vehicle
+            }
+        }
+
+        throw reject(Rejection.NOT_ENOUGH_ON_SAME_VEHICLE);
+    }
+
+    /**
+     * Counts a booking that cannot be served, tagged with the reason, and returns the exception to reject it with.
+     */
+    private IllegalStateException reject(Rejection rejection) {
+        Counter.builder("justlife.booking.rejections")
+                .description("Bookings rejected for lack of available professionals")
+                .tag("reason", rejection.reason)
+                .register(meterRegistry)
+                .increment();
+        return new IllegalStateException(rejection.message);
+    }
+
+    /**
+     * Saves a booking while holding the lock of the team's vehicle. The lock is held until the booking is committed,
+     * so concurrent bookings on the same vehicle cannot pick the same professionals while bookings on other vehicles
+     * proceed in parallel.
+     */
+    private Booking saveTeamLocked(List<CleaningProfessional> team, Booking booking,
+                                   UnaryOperator<List<CleaningProfessional>> stillAvailable,
+                                   Function<List<CleaningProfessional>, Booking> save) {
+        Lock lock = bookingLocks.forVehicle(team.get(0).getVehicle().getId());
+        lock.lock();
+        try {
+            return executeWrite(status -> saveTeam(stillAvailable.apply(team), booking, save));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Locks the rows of as many team members as the booking requires, skipping members whose rows are locked by
+     * concurrent bookings and members who are no longer available. The rows stay locked until the transaction ends.
+     */
+    private List<CleaningProfessional> claimTeam(List<CleaningProfessional> team, Booking booking,
+                                                 UnaryOperator<List<CleaningProfessional>> stillAvailable) {
+        List<CleaningProfessional> claimed = new ArrayList<>();
+        for (CleaningProfessional professional : team) {
+            if (claimed.size() == booking.getProfessionalsRequired()) {
+                break;
+            }
+            if (professionalRepository.claimSkipLocked(professional.getId()).isPresent()
+                    && !stillAvailable.apply(List.of(professional)).isEmpty()) {
+                claimed.add(professional);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Runs a booking transaction once it can generate ids, see {@link IdGenerationLimiter}.
+     */
+    private <T> T executeWrite(TransactionCallback<T> action) {
+        return idGenerationLimiter.run(() -> transactionTemplate.execute(action));
+    }
+
+    private Booking saveTeam(List<CleaningProfessional> stillAvailable, Booking booking, Function<List<CleaningProfessional>, Booking> save) {
+        if (stillAvailable.size() < booking.getProfessionalsRequired()) {
+            return null;
+        }
+        return save.apply(stillAvailable.subList(0, booking.getProfessionalsRequired()));
+    }
+
+    private boolean isValid(Booking booking) {
+        try {
+            validateBooking(booking);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
     }
 
     private void validateBooking(Booking booking) {
+        if (booking.getStartTime() == null) {
+            throw new IllegalArgumentException("Invalid booking start time. Must be provided.");
+        }
+        if (!WeeklyShiftCalendar.isSlotStart(booking.getStartTime())) {
+            throw new IllegalArgumentException("Invalid booking start time. Must be on the hour or half hour.");
+        }
         if (booking.getDuration() != 2 && booking.getDuration() != 4) {
             throw new IllegalArgumentException("Invalid booking duration. Must be 2 or 4 hours.");
         }
@@ -92,20 +462,70 @@ public class BookingService {
         }
     }
 
-    private List<CleaningProfessional> filterProfessionalsByVehicle(Long vehicleId, List<CleaningProfessional> availableProfessionals, int professionalsRequired) {
-        List<CleaningProfessional> assignedProfessionals = availableProfessionals.stream()
-                .filter(pro -> pro.getVehicle().getId().equals(vehicleId))
-                .limit(professionalsRequired)
-                .collect(Collectors.toList());
+    /**
+     * Groups the available professionals by vehicle in one pass and keeps the vehicles with enough of them, so a
+     * booking is only rejected when no vehicle can serve it.
+     *
+     * @param availableProfessionals all professionals available for the booking
+     * @param professionalsRequired the number of professionals required
+     * @return the candidate teams, one per vehicle, in the order their vehicles were first seen
+     */
+    private List<List<CleaningProfessional>> groupTeams(List<CleaningProfessional> availableProfessionals, int professionalsRequired) {
+        Map<Long, List<CleaningProfessional>> professionalsByVehicle = new LinkedHashMap<>();
 
-        if (assignedProfessionals.size() < professionalsRequired) {
-            throw new IllegalStateException("Not enough professionals from the same vehicle available for the requested time");
+        for (CleaningProfessional professional : availableProfessionals) {
+            Vehicle vehicle = professional.getVehicle();
+            if (vehicle != null) {
+                professionalsByVehicle.computeIfAbsent(vehicle.getId(), id -> new ArrayList<>()).add(professional);
+            }
         }
 
-        return assignedProfessionals;
+        return professionalsByVehicle.values().stream()
+                .filter(team -> team.size() >= professionalsRequired)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Lists booking details page by page in booking start time order, optionally filtered.
+     *
+     * @param from the first day of the bookings, or null
+     * @param to the last day of the bookings, inclusive, or null
+     * @param professionalId the id of the cleaning professional, or null
+     * @param vehicleId the id of the vehicle, or null
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of booking details in the page
+     * @return the page, with the cursor of the next page if there is one
+     */
+    @Timed(value = "justlife.booking", extraTags = {"operation", "list"}, histogram = true)
+    public BookingDetailPage getBookingDetails(LocalDate from, LocalDate to, Long professionalId, Long vehicleId, String cursor, int size) {
+        BookingDetailCursor after = cursor != null ? BookingDetailCursor.decode(cursor) : null;
+
+        // One extra row tells whether there is a next page without counting
+        List<BookingAssignment> details = bookingDetailRepository.findPage(
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                professionalId, vehicleId, after, size + 1);
+
+        if (details.size() <= size) {
+            return new BookingDetailPage(details, null);
+        }
+        List<BookingAssignment> page = details.subList(0, size);
+        return new BookingDetailPage(page, BookingDetailCursor.of(page.get(size - 1)).encode());
     }
 
-    public List<BookingDetail> getAllBookingDetails() {
-        return bookingDetailRepository.findAll();
+    /**
+     * Reasons a valid booking cannot be served.
+     */
+    private enum Rejection {
+        NOT_ENOUGH_PROFESSIONALS("not_enough_professionals", "Not enough professionals available for the requested time"),
+        NOT_ENOUGH_ON_SAME_VEHICLE("not_enough_on_same_vehicle", "Not enough professionals from the same vehicle available for the requested time");
+
+        private final String reason;
+        private final String message;
+
+        Rejection(String reason, String message) {
+            this.reason = reason;
+            this.message = message;
+        }
     }
 }
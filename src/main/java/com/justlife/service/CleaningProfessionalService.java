@@ -4,6 +4,7 @@ import com.justlife.model.CleaningProfessional;
 import com.justlife.repository.CleaningProfessionalRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,29 +15,65 @@ public class CleaningProfessionalService {
     @Autowired
     private CleaningProfessionalRepository cleaningProfessionalRepository;
 
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    @Autowired
+    private WeeklyShiftCalendar shiftCalendar;
+
+    @Autowired
+    private ReadReplicaRouter readReplicaRouter;
+
+    @Autowired
+    private IdGenerationLimiter idGenerationLimiter;
+
+    @Transactional(readOnly = true)
     public List<CleaningProfessional> getAllCleaningProfessionals() {
+        readReplicaRouter.readFromReplica();
         return cleaningProfessionalRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Optional<CleaningProfessional> getCleaningProfessionalById(Long id) {
+        readReplicaRouter.readFromReplica();
         return cleaningProfessionalRepository.findById(id);
     }
 
     public CleaningProfessional createCleaningProfessional(CleaningProfessional cleaningProfessional) {
-        return cleaningProfessionalRepository.save(cleaningProfessional);
+        validateShifts(cleaningProfessional);
+        CleaningProfessional savedProfessional = idGenerationLimiter.run(() -> cleaningProfessionalRepository.save(cleaningProfessional));
+        availabilityCache.invalidateAll();
+        readReplicaRouter.recordWriteAfterCommit();
+        return savedProfessional;
     }
 
     public Optional<CleaningProfessional> updateCleaningProfessional(Long id, CleaningProfessional cleaningProfessional) {
+        validateShifts(cleaningProfessional);
         return cleaningProfessionalRepository.findById(id).map(existingProfessional -> {
             cleaningProfessional.setId(id);
-            return cleaningProfessionalRepository.save(cleaningProfessional);
+            cleaningProfessionalRepository.save(cleaningProfessional);
+            // Once saved, so the next check compiles the saved shifts
+            shiftCalendar.evict(id);
+            availabilityCache.invalidateAll();
+            readReplicaRouter.recordWriteAfterCommit();
+            // The merged vehicle is a lazy reference, read the professional back with its fetch plan
+            return cleaningProfessionalRepository.findById(id).orElseThrow();
         });
     }
 
     public boolean deleteCleaningProfessional(Long id) {
         return cleaningProfessionalRepository.findById(id).map(professional -> {
             cleaningProfessionalRepository.deleteById(id);
+            shiftCalendar.evict(id);
+            availabilityCache.invalidateAll();
+            readReplicaRouter.recordWriteAfterCommit();
             return true;
         }).orElse(false);
     }
+
+    private void validateShifts(CleaningProfessional cleaningProfessional) {
+        if (cleaningProfessional.getShifts() != null) {
+            cleaningProfessional.getShifts().forEach(WeeklyShiftCalendar::validate);
+        }
+    }
 }
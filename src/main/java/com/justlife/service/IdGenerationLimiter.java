@@ -0,0 +1,56 @@
+package com.justlife.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the writes that generate ids while they run. Bookings, booking details and cleaning professionals fetch their
+ * id blocks from the id_generator table on a pooled connection of its own, so one connection of the pool has to stay
+ * free for it or those writers wait on each other until the pool times out. They run at most one less at once than
+ * the pool has connections; other reads and writes are not bounded.
+ * <p>
+ * A write that cannot start within the timeout is refused, so requests fail fast under overload instead of queueing.
+ */
+@Component
+public class IdGenerationLimiter {
+
+    private final Semaphore writers;
+    private final long timeoutMillis;
+
+    public IdGenerationLimiter(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+                               @Value("${justlife.booking.id-generation-timeout:5s}") Duration timeout) {
+        if (connectionPoolSize < 2) {
+            throw new IllegalArgumentException("Invalid connection pool size. Must be at least 2 to generate ids.");
+        }
+        writers = new Semaphore(connectionPoolSize - 1, true);
+        timeoutMillis = timeout.toMillis();
+    }
+
+    /**
+     * Runs a write that generates ids once one of the connections it may use is free.
+     *
+     * @param write the write, running its own transaction
+     * @return the result of the write
+     * @throws IllegalStateException if no connection became free within the timeout
+     */
+    public <T> T run(Supplier<T> write) {
+        try {
+            if (!writers.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Too many concurrent writes, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to write, please retry", e);
+        }
+        try {
+            return write.get();
+        } finally {
+            writers.release();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.justlife.service;
+
+import com.justlife.repository.BookingDetailRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resident index of the booked intervals of every cleaning professional.
+ * <p>
+ * The index is loaded once at startup and kept in sync by {@link AvailabilityCheckService#updateProfessionalsAvailability},
+ * so availability checks never have to query the booking tables. When the {@link BookingJournal} is enabled and holds
+ * bookings, it is loaded from the journal instead of the database.
+ */
+@Component
+public class ProfessionalScheduleIndex {
+
+    /**
+     * Mandatory break between two bookings of the same professional.
+     */
+    public static final Duration BREAK = Duration.ofMinutes(30);
+
+    @Autowired
+    private BookingDetailRepository bookingDetailRepository;
+
+    @Autowired
+    private BookingJournal bookingJournal;
+
+    private final Map<Long, ProfessionalSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> professionalsByBooking = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        if (bookingJournal.hasEntries()) {
+            bookingJournal.replay(entry -> record(entry.bookingId(), entry.startTime(), entry.endTime(), entry.professionalIds()));
+            return;
+        }
+
+        Map<Long, BookingJournal.Entry> bookings = new LinkedHashMap<>();
+        for (BookingDetailRepository.ScheduledBooking scheduled : bookingDetailRepository.findAllScheduledBookings()) {
+            add(scheduled.getProfessionalId(), scheduled.getBookingId(), scheduled.getStartTime(), scheduled.getEndTime());
+            if (bookingJournal.isEnabled()) {
+                // Sequence 0, before any record appended from now on
+                bookings.computeIfAbsent(scheduled.getBookingId(), id -> new BookingJournal.Entry(0, BookingJournal.Type.CREATE,
+                        id, scheduled.getStartTime(), scheduled.getEndTime(), new ArrayList<>())).professionalIds().add(scheduled.getProfessionalId());
+            }
+        }
+        // Seeds an empty journal, so the next startup replays it
+        bookingJournal.rewrite(bookings.values());
+    }
+
+    /**
+     * Checks if a professional has no booking overlapping the given time range, including the break before and after it.
+     *
+     * @param professionalId the id of the cleaning professional
+     * @param startTime the start time of the requested range
+     * @param endTime the end time of the requested range
+     * @return true if the professional is free for the given time range, false otherwise
+     */
+    public boolean isFree(Long professionalId, LocalDateTime startTime, LocalDateTime endTime) {
+        return isFree(professionalId, startTime, endTime, null);
+    }
+
+    /**
+     * Same as {@link #isFree(Long, LocalDateTime, LocalDateTime)}, ignoring one booking, for moving that booking.
+     *
+     * @param professionalId the id of the cleaning professional
+     * @param startTime the start time of the requested range
+     * @param endTime the end time of the requested range
+     * @param ignoredBookingId the id of the booking to ignore, or null
+     * @return true if the professional is free for the given time range, false otherwise
+     */
+    public boolean isFree(Long professionalId, LocalDateTime startTime, LocalDateTime endTime, Long ignoredBookingId) {
+        ProfessionalSchedule schedule = schedules.get(professionalId);
+        return schedule == null || schedule.isFree(startTime, endTime, ignoredBookingId);
+    }
+
+    /**
+     * Returns the slots of a day a professional cannot start or work in, because they overlap a booking or the break
+     * before and after it.
+     *
+     * @param professionalId the id of the cleaning professional
+     * @param date the day to check
+     * @return the bitmask of the blocked slots of the day, see {@link WeeklyShiftCalendar}
+     */
+    public long blockedSlots(Long professionalId, LocalDate date) {
+        ProfessionalSchedule schedule = schedules.get(professionalId);
+        return schedule == null ? 0 : schedule.blockedSlots(date.atStartOfDay());
+    }
+
+    /**
+     * Slots of a day blocked by a booking, the booking padded with the break on both sides.
+     *
+     * @param startOfDay the start of the day
+     * @param startTime the start time of the booking
+     * @param endTime the end time of the booking
+     * @return the bitmask of the blocked slots of the day
+     */
+    public static long blockedSlots(LocalDateTime startOfDay, LocalDateTime startTime, LocalDateTime endTime) {
+        return WeeklyShiftCalendar.touchedSlots(startOfDay, startTime.minus(BREAK), endTime.plus(BREAK));
+    }
+
+    /**
+     * Slots of a day blocked by slot reservations, which hold each booking and the break after it. The break before a
+     * booking is the slot preceding its reservation, the last slot of the day when the reservation starts the next day.
+     *
+     * @param reserved the bitmask of the reserved slots of the day
+     * @param reservedNextDay the bitmask of the reserved slots of the next day
+     * @return the bitmask of the blocked slots of the day, same as {@link #blockedSlots(LocalDateTime, LocalDateTime, LocalDateTime)}
+     * for the bookings of the reservations
+     */
+    public static long blockedSlots(long reserved, long reservedNextDay) {
+        return reserved | reserved >>> 1 | (reservedNextDay & 1) << (WeeklyShiftCalendar.SLOTS_PER_DAY - 1);
+    }
+
+    /**
+     * Records the time range and team of a booking. A booking recorded before is replaced: professionals no longer
+     * on its team are freed, mirroring the booking details that reference it.
+     *
+     * @param bookingId the id of the booking
+     * @param startTime the start time of the booking
+     * @param endTime the end time of the booking
+     * @param professionalIds the ids of all the professionals assigned to the booking
+     */
+    public void record(Long bookingId, LocalDateTime startTime, LocalDateTime endTime, Collection<Long> professionalIds) {
+        Set<Long> assigned = professionalsByBooking.get(bookingId);
+        if (assigned != null) {
+            for (Long professionalId : Set.copyOf(assigned)) {
+                if (!professionalIds.contains(professionalId)) {
+                    schedules.get(professionalId).remove(bookingId);
+                    assigned.remove(professionalId);
+                }
+            }
+        }
+        for (Long professionalId : professionalIds) {
+            add(professionalId, bookingId, startTime, endTime);
+        }
+    }
+
+    /**
+     * Same as {@link #record}, but deferred until the surrounding transaction commits so that rolled back bookings
+     * never reach the index.
+     */
+    public void recordAfterCommit(Long bookingId, LocalDateTime startTime, LocalDateTime endTime, Collection<Long> professionalIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(bookingId, startTime, endTime, professionalIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(bookingId, startTime, endTime, professionalIds);
+            }
+        });
+    }
+
+    private void add(Long professionalId, Long bookingId, LocalDateTime startTime, LocalDateTime endTime) {
+        schedules.computeIfAbsent(professionalId, id -> new ProfessionalSchedule()).put(bookingId, startTime, endTime);
+        professionalsByBooking.computeIfAbsent(bookingId, id -> ConcurrentHashMap.newKeySet()).add(professionalId);
+    }
+
+    /**
+     * Booked intervals of a single professional, sorted by start time.
+     */
+    private static final class ProfessionalSchedule {
+
+        private static final Comparator<Interval> BY_START = Comparator.comparing(Interval::start)
+                .thenComparingLong(Interval::bookingId);
+
+        private final NavigableSet<Interval> byStart = new TreeSet<>(BY_START);
+        private final Map<Long, Interval> byBooking = new HashMap<>();
+        private Duration longest = Duration.ZERO;
+
+        synchronized void put(Long bookingId, LocalDateTime startTime, LocalDateTime endTime) {
+            Interval interval = new Interval(bookingId, startTime, endTime);
+            Interval previous = byBooking.put(bookingId, interval);
+            if (previous != null) {
+                byStart.remove(previous);
+            }
+            byStart.add(interval);
+
+            Duration length = Duration.between(startTime, endTime);
+            if (length.compareTo(longest) > 0) {
+                longest = length;
+            }
+        }
+
+        synchronized void remove(Long bookingId) {
+            Interval previous = byBooking.remove(bookingId);
+            if (previous != null) {
+                byStart.remove(previous);
+            }
+        }
+
+        synchronized boolean isFree(LocalDateTime startTime, LocalDateTime endTime, Long ignoredBookingId) {
+            // A booking conflicts when it starts before the padded end and ends after the padded start.
+            // No booking is longer than the longest one seen, which bounds how far back we have to look.
+            LocalDateTime paddedStart = startTime.minus(BREAK);
+            LocalDateTime paddedEnd = endTime.plus(BREAK);
+            Interval from = Interval.probe(paddedStart.minus(longest));
+            Interval to = Interval.probe(paddedEnd);
+
+            for (Interval booked : byStart.subSet(from, true, to, false)) {
+                if (booked.end().isAfter(paddedStart) && !Objects.equals(booked.bookingId(), ignoredBookingId)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        synchronized long blockedSlots(LocalDateTime startOfDay) {
+            LocalDateTime endOfDay = startOfDay.plusDays(1);
+            Interval from = Interval.probe(startOfDay.minus(BREAK).minus(longest));
+            Interval to = Interval.probe(endOfDay.plus(BREAK));
+
+            long blocked = 0;
+            for (Interval booked : byStart.subSet(from, true, to, false)) {
+                blocked |= ProfessionalScheduleIndex.blockedSlots(startOfDay, booked.start(), booked.end());
+            }
+            return blocked;
+        }
+    }
+
+    private record Interval(long bookingId, LocalDateTime start, LocalDateTime end) {
+
+        static Interval probe(LocalDateTime time) {
+            return new Interval(Long.MIN_VALUE, time, time);
+        }
+    }
+}
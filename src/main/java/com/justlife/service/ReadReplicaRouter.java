@@ -0,0 +1,175 @@
+package com.justlife.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which read-only transactions may read from the replica configured with
+ * {@code justlife.datasource.replica.url}. Reads stay on the primary unless the service method opts in, so repository
+ * calls made right after a write still see it.
+ * <p>
+ * The replica is assumed to trail the primary by at most {@code justlife.datasource.replica.max-lag}. Until that long
+ * after a booking commits, reads of the dates it touches are sent to the primary; writes to professionals and
+ * vehicles send every read to the primary for that long.
+ */
+@Component
+public class ReadReplicaRouter {
+
+    private final boolean enabled;
+    private final long maxLagNanos;
+    private final Map<LocalDate, Long> dateWrites = new ConcurrentHashMap<>();
+    private volatile long sharedWrite;
+    private final ThreadLocal<Boolean> replicaSelected = new ThreadLocal<>();
+
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReadReplicaRouter(@Value("${justlife.datasource.replica.url:}") String replicaUrl,
+                             @Value("${justlife.datasource.replica.max-lag:1s}") Duration maxLag,
+                             MeterRegistry meterRegistry) {
+        this.enabled = !replicaUrl.isEmpty();
+        this.maxLagNanos = maxLag.toNanos();
+        this.sharedWrite = System.nanoTime() - maxLagNanos;
+
+        replicaReads = Counter.builder("justlife.datasource.replica.reads").tag("source", "replica")
+                .description("Read-only transactions that opted into the replica, by where they were sent").register(meterRegistry);
+        primaryReads = Counter.builder("justlife.datasource.replica.reads").tag("source", "primary")
+                .description("Read-only transactions that opted into the replica, by where they were sent").register(meterRegistry);
+    }
+
+    /**
+     * Reads the current read-only transaction from the replica, unless a booking touching the time range committed
+     * within the replica lag.
+     *
+     * @param startTime the start of the range read
+     * @param endTime the end of the range read
+     */
+    public void readFromReplica(LocalDateTime startTime, LocalDateTime endTime) {
+        readFromReplica(dates(startTime, endTime));
+    }
+
+    /**
+     * Reads the current read-only transaction from the replica, unless a booking touching one of the dates committed
+     * within the replica lag.
+     *
+     * @param dates the dates read
+     */
+    public void readFromReplica(Collection<LocalDate> dates) {
+        if (enabled) {
+            select(!isRecentlyWritten(dates));
+        }
+    }
+
+    /**
+     * Reads the current read-only transaction from the replica, unless a professional or vehicle changed within the
+     * replica lag.
+     */
+    public void readFromReplica() {
+        readFromReplica(List.of());
+    }
+
+    /**
+     * Whether data read for the given dates may have changed on the primary within the replica lag.
+     *
+     * @param dates the dates read
+     * @return true if the replica may not have caught up with those dates yet
+     */
+    public boolean isRecentlyWritten(Collection<LocalDate> dates) {
+        long now = System.nanoTime();
+        if (now - sharedWrite < maxLagNanos) {
+            return true;
+        }
+        for (LocalDate date : dates) {
+            Long written = dateWrites.get(date);
+            if (written != null && now - written < maxLagNanos) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the connection of the current transaction is to be taken from the replica.
+     */
+    public boolean isReplicaSelected() {
+        return Boolean.TRUE.equals(replicaSelected.get());
+    }
+
+    /**
+     * Keeps reads of the dates a booking touches on the primary for the replica lag, starting when the surrounding
+     * transaction commits.
+     *
+     * @param startTime the start of the range written
+     * @param endTime the end of the range written
+     */
+    public void recordWriteAfterCommit(LocalDateTime startTime, LocalDateTime endTime) {
+        if (enabled) {
+            List<LocalDate> dates = dates(startTime, endTime);
+            afterCommit(() -> {
+                long now = System.nanoTime();
+                dateWrites.values().removeIf(written -> now - written >= maxLagNanos);
+                dates.forEach(date -> dateWrites.put(date, now));
+            });
+        }
+    }
+
+    /**
+     * Keeps every read on the primary for the replica lag, starting when the surrounding transaction commits or now
+     * when there is none. For changes that affect all dates, such as to a professional or a vehicle.
+     */
+    public void recordWriteAfterCommit() {
+        if (enabled) {
+            afterCommit(() -> sharedWrite = System.nanoTime());
+        }
+    }
+
+    private void select(boolean replica) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || replicaSelected.get() != null) {
+            return;
+        }
+        (replica ? replicaReads : primaryReads).increment();
+        replicaSelected.set(replica);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                replicaSelected.remove();
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static List<LocalDate> dates(LocalDateTime startTime, LocalDateTime endTime) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = startTime.toLocalDate(); !date.isAfter(endTime.toLocalDate()); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        return dates;
+    }
+}
@@ -4,6 +4,7 @@ import com.justlife.model.Vehicle;
 import com.justlife.repository.VehicleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,28 +15,46 @@ public class VehicleService {
     @Autowired
     private VehicleRepository vehicleRepository;
 
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    @Autowired
+    private ReadReplicaRouter readReplicaRouter;
+
+    @Transactional(readOnly = true)
     public List<Vehicle> getAllVehicles() {
+        readReplicaRouter.readFromReplica();
         return vehicleRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Vehicle> getVehicleById(Long id) {
+        readReplicaRouter.readFromReplica();
         return vehicleRepository.findById(id);
     }
 
     public Vehicle createVehicle(Vehicle vehicle) {
-        return vehicleRepository.save(vehicle);
+        Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        readReplicaRouter.recordWriteAfterCommit();
+        return savedVehicle;
     }
 
     public Optional<Vehicle> updateVehicle(Long id, Vehicle vehicle) {
         return vehicleRepository.findById(id).map(existingVehicle -> {
             vehicle.setId(id);
-            return vehicleRepository.save(vehicle);
+            Vehicle savedVehicle = vehicleRepository.save(vehicle);
+            // Cached availability results embed the vehicle of each professional
+            availabilityCache.invalidateAll();
+            readReplicaRouter.recordWriteAfterCommit();
+            return savedVehicle;
         });
     }
 
     public boolean deleteVehicle(Long id) {
         return vehicleRepository.findById(id).map(vehicle -> {
             vehicleRepository.deleteById(id);
+            availabilityCache.invalidateAll();
+            readReplicaRouter.recordWriteAfterCommit();
             return true;
         }).orElse(false);
     }
@@ -0,0 +1,279 @@
+package com.justlife.service;
+
+import com.justlife.model.CleaningProfessional;
+import com.justlife.model.WorkingShift;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Weekly working hours of every cleaning professional, compiled once into one bitmask per weekday where each bit
+ * is a 30-minute slot of the day.
+ * <p>
+ * The shifts of a professional are compiled on first use and cached until the professional is updated or deleted, so
+ * the working hours check on the availability path is a bitwise test. Ranges starting or ending within a slot only
+ * partly covered by a shift, such as a shift starting at 08:15, are checked to the minute.
+ */
+@Component
+public class WeeklyShiftCalendar {
+
+    /**
+     * Length of a slot, in minutes. A day of 48 slots fits in a single {@code long}.
+     */
+    public static final int SLOT_MINUTES = 30;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Number of slots in a day, and of the bits used in a day's bitmask.
+     */
+    public static final int SLOTS_PER_DAY = MINUTES_PER_DAY / SLOT_MINUTES;
+
+    private final Map<Long, CompiledShifts> compiledByProfessional = new ConcurrentHashMap<>();
+
+    /**
+     * Checks if the given time range is within the working hours of a professional.
+     *
+     * @param professional the cleaning professional
+     * @param startTime the start time of the range
+     * @param endTime the end time of the range, on the same day
+     * @return true if the whole range is within a shift of the professional, false otherwise
+     */
+    public boolean isWorking(CleaningProfessional professional, LocalDateTime startTime, LocalDateTime endTime) {
+        long window = slotMask(startTime, endTime);
+        if (window == 0) {
+            return false;
+        }
+        CompiledShifts shifts = compiled(professional);
+        int day = startTime.getDayOfWeek().ordinal();
+        if ((window & ~shifts.covered[day]) == 0) {
+            return true;
+        }
+        if ((window & ~shifts.touched[day]) != 0) {
+            return false;
+        }
+        // The range starts or ends in a slot a shift only partly covers
+        int startMinute = minuteOfDay(startTime.toLocalTime());
+        return shifts.covers(day, startMinute, startMinute + ChronoUnit.MINUTES.between(startTime, endTime));
+    }
+
+    /**
+     * Returns the slots of a weekday entirely within the shifts of a professional.
+     *
+     * @param professional the cleaning professional
+     * @param day the day of the week
+     * @return the bitmask of the working slots of the day
+     */
+    public long workingSlots(CleaningProfessional professional, DayOfWeek day) {
+        return compiled(professional).covered[day.ordinal()];
+    }
+
+    /**
+     * Drops the compiled shifts of a professional, once its changes are saved or it is deleted.
+     *
+     * @param professionalId the id of the cleaning professional
+     */
+    public void evict(Long professionalId) {
+        compiledByProfessional.remove(professionalId);
+    }
+
+    private CompiledShifts compiled(CleaningProfessional professional) {
+        Long id = professional.getId();
+        if (id == null) {
+            return compile(professional);
+        }
+        return compiledByProfessional.computeIfAbsent(id, professionalId -> compile(professional));
+    }
+
+    /**
+     * Compiles the weekly shifts of a professional, or the legacy workingHours and workingOnFridays settings when the
+     * professional has no shifts.
+     */
+    static CompiledShifts compile(CleaningProfessional professional) {
+        List<WorkingShift> shifts = professional.getShifts();
+        if (shifts != null && !shifts.isEmpty()) {
+            int[] source = new int[shifts.size() * 3];
+            for (int i = 0; i < shifts.size(); i++) {
+                WorkingShift shift = shifts.get(i);
+                source[i * 3] = shift.getDayOfWeek().ordinal();
+                source[i * 3 + 1] = shift.getStartMinute();
+                source[i * 3 + 2] = shift.getEndMinute();
+            }
+            return new CompiledShifts(source);
+        }
+
+        String[] workingHours = professional.getWorkingHours().split("-");
+        int startMinute = minuteOfDay(LocalTime.parse(workingHours[0]));
+        int endMinute = minuteOfDay(LocalTime.parse(workingHours[1]));
+        int[] source = new int[0];
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day != DayOfWeek.FRIDAY || professional.isWorkingOnFridays()) {
+                source = Arrays.copyOf(source, source.length + 3);
+                source[source.length - 3] = day.ordinal();
+                source[source.length - 2] = startMinute;
+                source[source.length - 1] = endMinute;
+            }
+        }
+        return new CompiledShifts(source);
+    }
+
+    /**
+     * Validates a shift, rejecting empty ones and ones that do not fit in a single day.
+     *
+     * @param shift the shift to validate
+     */
+    public static void validate(WorkingShift shift) {
+        if (shift.getDayOfWeek() == null) {
+            throw new IllegalArgumentException("Invalid shift. Day of week is required.");
+        }
+        if (shift.getStartMinute() < 0 || shift.getEndMinute() > MINUTES_PER_DAY || shift.getStartMinute() >= shift.getEndMinute()) {
+            throw new IllegalArgumentException("Invalid shift. Must start before it ends, between minute 0 and " + MINUTES_PER_DAY + ".");
+        }
+    }
+
+    /**
+     * Slots touched by the given time range, or 0 when the range does not fit in the day it starts on.
+     */
+    private static long slotMask(LocalDateTime startTime, LocalDateTime endTime) {
+        int startMinute = minuteOfDay(startTime.toLocalTime());
+        long endMinute = startMinute + ChronoUnit.MINUTES.between(startTime, endTime);
+        if (endMinute > MINUTES_PER_DAY || endMinute <= startMinute) {
+            return 0;
+        }
+        int firstSlot = startMinute / SLOT_MINUTES;
+        int endSlot = (int) ((endMinute + SLOT_MINUTES - 1) / SLOT_MINUTES);
+        return bits(firstSlot, endSlot);
+    }
+
+    /**
+     * Slots of a day touched by the given time range, which may start before or end after the day.
+     *
+     * @param startOfDay the start of the day
+     * @param startTime the start time of the range
+     * @param endTime the end time of the range
+     * @return the bitmask of the slots of the day overlapping the range
+     */
+    public static long touchedSlots(LocalDateTime startOfDay, LocalDateTime startTime, LocalDateTime endTime) {
+        long startMinute = Math.max(0, ChronoUnit.MINUTES.between(startOfDay, startTime));
+        long endMinute = Math.min(MINUTES_PER_DAY, ChronoUnit.MINUTES.between(startOfDay, endTime));
+        if (endMinute <= startMinute) {
+            return 0;
+        }
+        return bits((int) (startMinute / SLOT_MINUTES), (int) ((endMinute + SLOT_MINUTES - 1) / SLOT_MINUTES));
+    }
+
+    /**
+     * Slots a range of the given length can start at so that it only covers slots of the given mask.
+     *
+     * @param slots the bitmask of the slots that can be covered
+     * @param length the number of slots the range covers
+     * @return the bitmask of the start slots
+     */
+    public static long startSlots(long slots, int length) {
+        long starts = slots;
+        for (int i = 1; i < length; i++) {
+            starts &= slots >>> i;
+        }
+        return starts;
+    }
+
+    /**
+     * Start time of a slot of the day.
+     *
+     * @param slot the index of the slot
+     * @return the time the slot starts at
+     */
+    public static LocalTime slotStart(int slot) {
+        return LocalTime.MIDNIGHT.plusMinutes((long) slot * SLOT_MINUTES);
+    }
+
+    /**
+     * Whether a time is the start of a slot, on the hour or half hour. Bookings only start on slots, so the slots they
+     * reserve are exactly those they and their break cover.
+     *
+     * @param time the time to check
+     * @return true if the time starts a slot
+     */
+    public static boolean isSlotStart(LocalDateTime time) {
+        return time.getMinute() % SLOT_MINUTES == 0 && time.getSecond() == 0 && time.getNano() == 0;
+    }
+
+    private static long bits(int fromSlot, int toSlot) {
+        if (toSlot <= fromSlot) {
+            return 0;
+        }
+        long upTo = toSlot == Long.SIZE ? -1L : (1L << toSlot) - 1;
+        return upTo & ~((1L << fromSlot) - 1);
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * The shifts of a professional by weekday, as the slots they entirely cover, the slots they touch and their
+     * minutes.
+     */
+    static final class CompiledShifts {
+
+        private final long[] covered = new long[DayOfWeek.values().length];
+        private final long[] touched = new long[DayOfWeek.values().length];
+        /**
+         * Per weekday, the start and end minutes of the shifts with overlapping and adjacent ones merged, in order.
+         */
+        private final int[][] merged = new int[DayOfWeek.values().length][];
+
+        /**
+         * @param shifts the day of the week ordinal, start minute and end minute of each shift
+         */
+        private CompiledShifts(int[] shifts) {
+            for (int day = 0; day < merged.length; day++) {
+                List<int[]> ranges = new ArrayList<>();
+                for (int i = 0; i < shifts.length; i += 3) {
+                    if (shifts[i] == day) {
+                        ranges.add(new int[]{shifts[i + 1], shifts[i + 2]});
+                    }
+                }
+                ranges.sort(Comparator.comparingInt(range -> range[0]));
+                List<Integer> bounds = new ArrayList<>();
+                for (int[] range : ranges) {
+                    if (!bounds.isEmpty() && range[0] <= bounds.get(bounds.size() - 1)) {
+                        bounds.set(bounds.size() - 1, Math.max(bounds.get(bounds.size() - 1), range[1]));
+                    } else {
+                        bounds.add(range[0]);
+                        bounds.add(range[1]);
+                    }
+                }
+                merged[day] = bounds.stream().mapToInt(Integer::intValue).toArray();
+                for (int i = 0; i < merged[day].length; i += 2) {
+                    int startMinute = merged[day][i];
+                    int endMinute = merged[day][i + 1];
+                    covered[day] |= bits((startMinute + SLOT_MINUTES - 1) / SLOT_MINUTES, endMinute / SLOT_MINUTES);
+                    touched[day] |= bits(startMinute / SLOT_MINUTES, (endMinute + SLOT_MINUTES - 1) / SLOT_MINUTES);
+                }
+            }
+        }
+
+        /**
+         * Whether a single shift, once merged with the adjacent ones, covers the given minutes of a weekday.
+         */
+        boolean covers(int day, long startMinute, long endMinute) {
+            int[] bounds = merged[day];
+            for (int i = 0; i < bounds.length; i += 2) {
+                if (bounds[i] <= startMinute && endMinute <= bounds[i + 1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
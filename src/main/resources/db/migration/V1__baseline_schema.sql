@@ -0,0 +1,69 @@
+-- The schema as created by spring.jpa.hibernate.ddl-auto=update up to this version. Databases that already have it are
+-- baselined at this version instead of running it, see spring.flyway.baseline-on-migrate.
+
+CREATE TABLE vehicle (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE cleaning_professional (
+    id BIGINT NOT NULL,
+    name VARCHAR(255),
+    available BIT NOT NULL,
+    working_hours VARCHAR(255),
+    working_on_fridays BIT NOT NULL,
+    vehicle_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_cleaning_professional_vehicle FOREIGN KEY (vehicle_id) REFERENCES vehicle (id)
+);
+
+CREATE TABLE professional_shift (
+    professional_id BIGINT NOT NULL,
+    day_of_week ENUM ('FRIDAY', 'MONDAY', 'SATURDAY', 'SUNDAY', 'THURSDAY', 'TUESDAY', 'WEDNESDAY'),
+    start_minute INTEGER,
+    end_minute INTEGER,
+    CONSTRAINT fk_professional_shift_professional FOREIGN KEY (professional_id) REFERENCES cleaning_professional (id)
+);
+
+CREATE TABLE booking (
+    id BIGINT NOT NULL,
+    start_time DATETIME(6),
+    end_time DATETIME(6),
+    duration INTEGER NOT NULL,
+    professionals_required INTEGER NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_booking_start_time ON booking (start_time, id);
+
+CREATE TABLE booking_detail (
+    id BIGINT NOT NULL,
+    booking_id BIGINT,
+    professional_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_booking_detail_booking FOREIGN KEY (booking_id) REFERENCES booking (id),
+    CONSTRAINT fk_booking_detail_professional FOREIGN KEY (professional_id) REFERENCES cleaning_professional (id)
+);
+
+CREATE INDEX idx_booking_detail_professional ON booking_detail (professional_id, booking_id);
+
+CREATE TABLE professional_slot_reservation (
+    professional_id BIGINT NOT NULL,
+    slot_start DATETIME(6) NOT NULL,
+    booking_id BIGINT NOT NULL,
+    PRIMARY KEY (professional_id, slot_start)
+);
+
+CREATE INDEX idx_slot_reservation_booking ON professional_slot_reservation (booking_id);
+
+-- Each row holds the next id to hand out to its table, in blocks of 50
+CREATE TABLE id_generator (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO id_generator (sequence_name, next_val) VALUES ('booking', 1);
+INSERT INTO id_generator (sequence_name, next_val) VALUES ('booking_detail', 1);
+INSERT INTO id_generator (sequence_name, next_val) VALUES ('cleaning_professional', 1);
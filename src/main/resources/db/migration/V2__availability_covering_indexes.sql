@@ -0,0 +1,13 @@
+-- Indexes that answer the availability and booking detail queries without reading the table rows.
+
+-- Bookings overlapping a window: range on start_time, end_time checked in the index. It does not give (start_time, id)
+-- order, end_time sits between them; listing booking details pages through idx_booking_detail_start_time of V5.
+DROP INDEX idx_booking_start_time ON booking;
+CREATE INDEX idx_booking_time_window ON booking (start_time, end_time, id);
+
+-- Professionals of the bookings found above, and deleteByBookingId. The existing (professional_id, booking_id) index
+-- serves the lookups by professional.
+CREATE INDEX idx_booking_detail_booking ON booking_detail (booking_id, professional_id);
+
+-- Professionals with a shift covering the requested window on a day of the week
+CREATE INDEX idx_professional_shift_window ON professional_shift (day_of_week, start_minute, end_minute, professional_id);
@@ -0,0 +1,17 @@
+-- Reserved slots of each professional per day, one bit per 30-minute slot of the day, see ProfessionalDayOccupancy.
+-- The primary key leads with the day, so the occupancy of every professional on a day is one range read.
+
+CREATE TABLE professional_day_occupancy (
+    slot_day DATE NOT NULL,
+    professional_id BIGINT NOT NULL,
+    bitmap BIGINT NOT NULL,
+    PRIMARY KEY (slot_day, professional_id)
+);
+
+-- Slot reservations never overlap, so summing the bits of a day sets each reserved slot once. A day has 48 slots,
+-- the sum stays below 2^48 and is exact in floating point.
+INSERT INTO professional_day_occupancy (slot_day, professional_id, bitmap)
+SELECT CAST(slot_start AS DATE), professional_id,
+       SUM(POWER(2, HOUR(slot_start) * 2 + FLOOR(MINUTE(slot_start) / 30)))
+FROM professional_slot_reservation
+GROUP BY CAST(slot_start AS DATE), professional_id;
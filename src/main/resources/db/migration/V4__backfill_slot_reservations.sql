@@ -0,0 +1,24 @@
+-- Slot reservations for the booking details saved before reservations existed, so the primary key of
+-- professional_slot_reservation keeps new bookings off their slots too. Same slots as
+-- AvailabilityCheckService.reservedSlots: from the slot the booking starts in, up to the end of its 30-minute break.
+-- Bookings last at most 4 hours, so their reservations span at most 10 slots.
+-- Two earlier bookings less than a slot apart, possible when they did not start on a slot, may touch the same slot;
+-- it is reserved for the first of them.
+
+INSERT INTO professional_slot_reservation (professional_id, slot_start, booking_id)
+SELECT slot.professional_id, slot.slot_start, MIN(slot.booking_id)
+FROM (SELECT d.professional_id, d.booking_id, b.end_time,
+             TIMESTAMPADD(MINUTE, (FLOOR((HOUR(b.start_time) * 60 + MINUTE(b.start_time)) / 30) + n.n) * 30,
+                          CAST(CAST(b.start_time AS DATE) AS DATETIME)) AS slot_start
+      FROM booking_detail d
+      JOIN booking b ON b.id = d.booking_id
+      CROSS JOIN (SELECT 0 AS n UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                  UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9
+                  UNION ALL SELECT 10 UNION ALL SELECT 11) n
+      WHERE d.professional_id IS NOT NULL
+        AND NOT EXISTS (SELECT 1 FROM professional_slot_reservation r
+                        WHERE r.booking_id = d.booking_id AND r.professional_id = d.professional_id)) slot
+WHERE slot.slot_start < TIMESTAMPADD(MINUTE, 30, slot.end_time)
+  AND NOT EXISTS (SELECT 1 FROM professional_slot_reservation r
+                  WHERE r.professional_id = slot.professional_id AND r.slot_start = slot.slot_start)
+GROUP BY slot.professional_id, slot.slot_start;
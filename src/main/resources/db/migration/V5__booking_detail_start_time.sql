@@ -0,0 +1,8 @@
+-- Start time of the booking on each of its details, so GET /bookings pages through idx_booking_detail_start_time in
+-- (start_time, id) order and seeks to its cursor there, instead of sorting the join of both tables on every page.
+
+ALTER TABLE booking_detail ADD COLUMN start_time DATETIME(6);
+
+UPDATE booking_detail d SET start_time = (SELECT b.start_time FROM booking b WHERE b.id = d.booking_id);
+
+CREATE INDEX idx_booking_detail_start_time ON booking_detail (start_time, id);
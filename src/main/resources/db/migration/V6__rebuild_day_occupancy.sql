@@ -0,0 +1,11 @@
+-- Rebuilds the occupancy of every professional from the slot reservations, now that V4 reserved the slots of the
+-- bookings made before reservations existed. V3 filled it from the reservations alone, so the days of those bookings
+-- looked free to the availability queries reading the bitmaps. Same bits as V3.
+
+DELETE FROM professional_day_occupancy;
+
+INSERT INTO professional_day_occupancy (slot_day, professional_id, bitmap)
+SELECT CAST(slot_start AS DATE), professional_id,
+       SUM(POWER(2, HOUR(slot_start) * 2 + FLOOR(MINUTE(slot_start) / 30)))
+FROM professional_slot_reservation
+GROUP BY CAST(slot_start AS DATE), professional_id;
@@ -0,0 +1,63 @@
+-- Range-partitions booking by month of start_time, so availability queries on a window only read the partitions of
+-- its months. Optional, for databases with a long booking history. Run once with the application stopped, after
+-- the Flyway migrations, then CALL partition_booking_add_month() ahead of each new month beyond the twelve created.
+--
+-- MySQL requires the partitioning column in every unique key of the table and does not allow foreign keys referencing
+-- a partitioned table, so booking's primary key becomes (id, start_time) and booking_detail loses its foreign key to
+-- booking. Ids still come from the id_generator table and stay unique on their own, but booking_detail.booking_id
+-- is no longer checked by the database.
+
+-- booking_detail.booking_id keeps an index of its own, idx_booking_detail_booking
+SELECT CONSTRAINT_NAME INTO @booking_fk FROM information_schema.REFERENTIAL_CONSTRAINTS
+WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'booking_detail' AND REFERENCED_TABLE_NAME = 'booking';
+SET @drop_fk = CONCAT('ALTER TABLE booking_detail DROP FOREIGN KEY ', @booking_fk);
+PREPARE drop_fk FROM @drop_fk;
+EXECUTE drop_fk;
+DEALLOCATE PREPARE drop_fk;
+
+ALTER TABLE booking
+    MODIFY start_time DATETIME(6) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, start_time);
+
+-- One partition per month from the first booking to twelve months ahead, and a catch-all for anything later
+DROP PROCEDURE IF EXISTS partition_booking_by_month;
+DELIMITER //
+CREATE PROCEDURE partition_booking_by_month()
+BEGIN
+    DECLARE month_start DATE DEFAULT DATE_FORMAT(COALESCE((SELECT MIN(start_time) FROM booking), CURDATE()), '%Y-%m-01');
+    DECLARE last_month DATE DEFAULT DATE_FORMAT(CURDATE() + INTERVAL 12 MONTH, '%Y-%m-01');
+    DECLARE partitions TEXT DEFAULT '';
+
+    WHILE month_start <= last_month DO
+        SET partitions = CONCAT(partitions, 'PARTITION p', DATE_FORMAT(month_start, '%Y%m'),
+                ' VALUES LESS THAN (''', month_start + INTERVAL 1 MONTH, '''), ');
+        SET month_start = month_start + INTERVAL 1 MONTH;
+    END WHILE;
+
+    SET @partition_booking = CONCAT('ALTER TABLE booking PARTITION BY RANGE COLUMNS (start_time) (',
+            partitions, 'PARTITION pmax VALUES LESS THAN (MAXVALUE))');
+    PREPARE partition_booking FROM @partition_booking;
+    EXECUTE partition_booking;
+    DEALLOCATE PREPARE partition_booking;
+END //
+
+-- Splits the month after the last monthly partition out of pmax, cheap while pmax is still empty
+CREATE PROCEDURE partition_booking_add_month()
+BEGIN
+    DECLARE month_start DATE;
+
+    SELECT STR_TO_DATE(CONCAT(SUBSTRING(MAX(PARTITION_NAME), 2), '01'), '%Y%m%d') + INTERVAL 1 MONTH INTO month_start
+    FROM information_schema.PARTITIONS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'booking' AND PARTITION_NAME <> 'pmax';
+
+    SET @add_month = CONCAT('ALTER TABLE booking REORGANIZE PARTITION pmax INTO (PARTITION p', DATE_FORMAT(month_start, '%Y%m'),
+            ' VALUES LESS THAN (''', month_start + INTERVAL 1 MONTH, '''), PARTITION pmax VALUES LESS THAN (MAXVALUE))');
+    PREPARE add_month FROM @add_month;
+    EXECUTE add_month;
+    DEALLOCATE PREPARE add_month;
+END //
+DELIMITER ;
+
+CALL partition_booking_by_month();
+DROP PROCEDURE partition_booking_by_month;
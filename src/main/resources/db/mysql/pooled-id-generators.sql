@@ -0,0 +1,26 @@
+-- Moves booking, booking_detail and cleaning_professional ids from AUTO_INCREMENT to the pooled id_generator table.
+-- Run once against an existing database, with the application stopped, before starting the version that uses it.
+-- Each row holds the next id to hand out, so it starts right after the largest id already in use.
+
+CREATE TABLE IF NOT EXISTS id_generator (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+) ENGINE = InnoDB;
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'booking', COALESCE(MAX(id), 0) + 1 FROM booking
+ON DUPLICATE KEY UPDATE next_val = GREATEST(id_generator.next_val, VALUES(next_val));
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'booking_detail', COALESCE(MAX(id), 0) + 1 FROM booking_detail
+ON DUPLICATE KEY UPDATE next_val = GREATEST(id_generator.next_val, VALUES(next_val));
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'cleaning_professional', COALESCE(MAX(id), 0) + 1 FROM cleaning_professional
+ON DUPLICATE KEY UPDATE next_val = GREATEST(id_generator.next_val, VALUES(next_val));
+
+-- The ids are now assigned by the application, the columns no longer need to generate them
+ALTER TABLE booking MODIFY id BIGINT NOT NULL;
+ALTER TABLE booking_detail MODIFY id BIGINT NOT NULL;
+ALTER TABLE cleaning_professional MODIFY id BIGINT NOT NULL;
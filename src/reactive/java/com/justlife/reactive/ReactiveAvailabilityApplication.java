@@ -0,0 +1,52 @@
+package com.justlife.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Read-only availability service on WebFlux and R2DBC, serving {@code GET /bookings/availability} from the tables the
+ * booking service writes without holding a thread per request. Configured by {@code reactive.properties}; the schema
+ * is owned by the booking service, which must have migrated the database first.
+ * <p>
+ * Only built with the reactive profile:
+ * <pre>
+ * mvn -Preactive spring-boot:run -Dspring-boot.run.main-class=com.justlife.reactive.ReactiveAvailabilityApplication
+ * </pre>
+ * The booking service scans this package too, the condition keeps it out of the servlet application.
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+        JpaRepositoriesAutoConfiguration.class, FlywayAutoConfiguration.class})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAvailabilityApplication {
+
+    public static void main(String[] args) {
+        builder().run(args);
+    }
+
+    /**
+     * Serves on Reactor Netty event loops. Tomcat, on the classpath for the booking service, would otherwise be
+     * preferred.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * The application as a reactive web application reading {@code reactive.properties}, whatever else is on the
+     * classpath.
+     */
+    public static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(ReactiveAvailabilityApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=reactive");
+    }
+}
@@ -0,0 +1,61 @@
+package com.justlife.reactive;
+
+import com.justlife.dto.AvailableProfessional;
+import com.justlife.service.WeeklyShiftCalendar;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * {@code GET /bookings/availability} of the booking service, with the same parameters and answers. Requests accepting
+ * {@code application/x-ndjson} get each professional as soon as it is found instead of one JSON array at the end.
+ */
+@RestController
+@RequestMapping("/bookings")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAvailabilityController {
+
+    @Autowired
+    private ReactiveAvailabilityService availabilityService;
+
+    @GetMapping(value = "/availability", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<AvailableProfessional> checkAvailability(@RequestParam String date, @RequestParam(required = false) String startTime, @RequestParam(required = false) Integer duration, @RequestParam(required = false) Integer professionalsRequired) {
+        try {
+            LocalDate parsedDate = LocalDate.parse(date, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+
+            professionalsRequired = professionalsRequired != null ? professionalsRequired : 1;
+
+            if (professionalsRequired < 1 || professionalsRequired > 3) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid number of professionals required");
+            }
+
+            if (duration != null && duration != 2 && duration != 4) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid booking duration. Must be 2 or 4 hours.");
+            }
+
+            // Same rule as the booking service's GET /bookings/availability
+            if (startTime == null || duration == null || professionalsRequired == null) {
+                return availabilityService.checkAvailabilityByDate(parsedDate, professionalsRequired);
+            }
+            LocalDateTime parsedStartTime = LocalDateTime.parse(startTime, DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"));
+            if (!WeeklyShiftCalendar.isSlotStart(parsedStartTime)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid booking start time. Must be on the hour or half hour.");
+            }
+            return availabilityService.checkAvailabilityByDateTime(parsedStartTime, duration, professionalsRequired);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date format", e);
+        }
+    }
+}
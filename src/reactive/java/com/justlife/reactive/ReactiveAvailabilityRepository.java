@@ -0,0 +1,79 @@
+package com.justlife.reactive;
+
+import com.justlife.dto.AvailableProfessional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Non-blocking reads of the availability tables, the R2DBC counterpart of
+ * {@link com.justlife.repository.CleaningProfessionalRepository#findAvailable}. The query is split in two so that
+ * no dialect-specific bit operator is needed: the professionals working the window are streamed from the database,
+ * and the occupancy bitmaps of the days the window touches are read for the caller to test.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAvailabilityRepository {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * Streams the professionals with a shift covering the requested window. Professionals without shifts fall back to
+     * their working hours, compared as "HH:mm-HH:mm" strings, and to the Friday rule.
+     *
+     * @param day the requested day of the week
+     * @param startMinute the requested start time, in minutes from midnight
+     * @param endMinute the requested end time, in minutes from midnight of the start day
+     * @param startClock the requested start time, formatted as ISO local time
+     * @param endClock the requested end time, formatted as ISO local time
+     * @return the working professionals, ordered by id
+     */
+    public Flux<AvailableProfessional> findWorking(DayOfWeek day, int startMinute, int endMinute, String startClock, String endClock) {
+        return databaseClient.sql("SELECT p.id, p.name, p.vehicle_id FROM cleaning_professional p " +
+                        "WHERE p.id IN (SELECT s.professional_id FROM professional_shift s " +
+                        "WHERE s.day_of_week = :day AND s.start_minute <= :startMinute AND s.end_minute >= :endMinute) " +
+                        "OR (NOT EXISTS (SELECT 1 FROM professional_shift s WHERE s.professional_id = p.id) " +
+                        "AND (p.working_on_fridays = TRUE OR :friday = FALSE) AND :endMinute <= 1440 " +
+                        "AND SUBSTRING(p.working_hours, 1, 5) <= :startClock AND SUBSTRING(p.working_hours, 7, 5) >= :endClock) " +
+                        "ORDER BY p.id")
+                .bind("day", day.name())
+                .bind("friday", day == DayOfWeek.FRIDAY)
+                .bind("startMinute", startMinute)
+                .bind("endMinute", endMinute)
+                .bind("startClock", startClock)
+                .bind("endClock", endClock)
+                .map((row, metadata) -> new AvailableProfessional(row.get("id", Long.class), row.get("name", String.class),
+                        row.get("vehicle_id", Long.class)))
+                .all();
+    }
+
+    /**
+     * Reads the occupancy bitmaps of every professional with reserved slots between two days.
+     *
+     * @param firstDay the first day, inclusive
+     * @param lastDay the last day, inclusive
+     * @return the occupancy of each professional and day
+     */
+    public Flux<DayOccupancy> findOccupancy(LocalDate firstDay, LocalDate lastDay) {
+        return databaseClient.sql("SELECT professional_id, slot_day, bitmap FROM professional_day_occupancy " +
+                        "WHERE slot_day BETWEEN :firstDay AND :lastDay")
+                .bind("firstDay", firstDay)
+                .bind("lastDay", lastDay)
+                .map((row, metadata) -> new DayOccupancy(row.get("professional_id", Long.class), row.get("slot_day", LocalDate.class),
+                        row.get("bitmap", Long.class)))
+                .all();
+    }
+
+    /**
+     * The reserved slots of a professional on a day, one bit per slot as in
+     * {@link com.justlife.model.ProfessionalDayOccupancy}.
+     */
+    public record DayOccupancy(Long professionalId, LocalDate day, long bitmap) {
+    }
+}
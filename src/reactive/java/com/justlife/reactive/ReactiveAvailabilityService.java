@@ -0,0 +1,69 @@
+package com.justlife.reactive;
+
+import com.justlife.dto.AvailableProfessional;
+import com.justlife.service.AvailabilityCheckService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Availability checks with the rules of {@link AvailabilityCheckService} in database mode, answered without blocking.
+ * The professionals busy during the window are collected from the occupancy bitmaps first, then the working
+ * professionals are streamed and the first free ones emitted; the rest of the query is cancelled once enough are found.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAvailabilityService {
+
+    @Autowired
+    private ReactiveAvailabilityRepository availabilityRepository;
+
+    /**
+     * Checks the availability of cleaning professionals on a given date, during the working day from 8:00 to 22:00.
+     *
+     * @param date the date to check availability for
+     * @param professionalsRequired the number of professionals required
+     * @return the available cleaning professionals, ordered by id
+     */
+    public Flux<AvailableProfessional> checkAvailabilityByDate(LocalDate date, int professionalsRequired) {
+        return findAvailable(date.atTime(8, 0), date.atTime(22, 0), professionalsRequired);
+    }
+
+    /**
+     * Checks the availability of cleaning professionals for a given date and time range.
+     *
+     * @param startTime the start time of the required availability
+     * @param duration the duration of the required availability
+     * @param professionalsRequired the number of professionals required
+     * @return the available cleaning professionals, ordered by id
+     */
+    public Flux<AvailableProfessional> checkAvailabilityByDateTime(LocalDateTime startTime, int duration, int professionalsRequired) {
+        return findAvailable(startTime, startTime.plusHours(duration), professionalsRequired);
+    }
+
+    private Flux<AvailableProfessional> findAvailable(LocalDateTime startTime, LocalDateTime endTime, int professionalsRequired) {
+        DayOfWeek day = startTime.getDayOfWeek();
+        int startMinute = startTime.getHour() * 60 + startTime.getMinute();
+        int endMinute = startMinute + (int) Duration.between(startTime, endTime).toMinutes();
+        // A booking ending at midnight ends after every working hours, not before them
+        String endClock = endMinute == 24 * 60 ? "24:00" : endTime.toLocalTime().toString();
+        Map<LocalDate, Long> slots = AvailabilityCheckService.reservedSlotsByDay(startTime, endTime);
+        LocalDate startDay = startTime.toLocalDate();
+
+        return availabilityRepository.findOccupancy(startDay, startDay.plusDays(1))
+                .filter(occupancy -> (occupancy.bitmap() & slots.getOrDefault(occupancy.day(), 0L)) != 0)
+                .map(ReactiveAvailabilityRepository.DayOccupancy::professionalId)
+                .collect(Collectors.toSet())
+                .flatMapMany(busy -> availabilityRepository.findWorking(day, startMinute, endMinute, startTime.toLocalTime().toString(), endClock)
+                        .filter(professional -> !busy.contains(professional.getId())))
+                .take(professionalsRequired);
+    }
+}
@@ -0,0 +1,254 @@
+package com.justlife.reactive;
+
+import com.justlife.JustlifeServiceApplication;
+import com.justlife.model.Booking;
+import com.justlife.model.CleaningProfessional;
+import com.justlife.model.Vehicle;
+import com.justlife.repository.CleaningProfessionalRepository;
+import com.justlife.repository.VehicleRepository;
+import com.justlife.service.BookingService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires the same {@code GET /bookings/availability} requests at the booking service and at the reactive availability
+ * service, both reading one embedded H2 database in database mode, at increasing numbers of requests in flight. For
+ * each it reports throughput, p50/p99 latency, failed requests, the peak number of server threads and the heap in use,
+ * so the two can be compared at a fixed heap size.
+ * <p>
+ * The H2 R2DBC driver runs its queries on the subscribing thread, so against H2 the reactive service queries the
+ * database on its few event loop threads and the comparison understates it. Point both at an empty MySQL database, which
+ * the test seeds, for figures that hold in production.
+ * <p>
+ * Only runs with the reactive and stress profiles. The workload is set with system properties:
+ * <pre>
+ * mvn -Preactive,stress test -Dtest=AvailabilityLoadComparisonTest -DargLine=-Xmx512m -Dload.concurrency=16,256,1024
+ * mvn -Preactive,stress test -Dtest=AvailabilityLoadComparisonTest -DargLine=-Xmx512m -Dload.username=root
+ *     -Dload.jdbc-url=jdbc:mysql://localhost:3306/justlife_load -Dload.r2dbc-url=r2dbc:mysql://localhost:3306/justlife_load
+ * </pre>
+ */
+@Tag("stress")
+class AvailabilityLoadComparisonTest {
+
+    private static final LocalDateTime FIRST_DAY = LocalDateTime.of(2030, 1, 7, 0, 0);
+    private static final int DAYS = 5;
+    private static final int PROFESSIONALS_PER_VEHICLE = 4;
+
+    private static final int[] CONCURRENCY = Arrays.stream(System.getProperty("load.concurrency", "16,64,256,1024").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+    private static final int REQUESTS = Integer.getInteger("load.requests", 5000);
+    private static final int VEHICLES = Integer.getInteger("load.vehicles", 50);
+    private static final int BOOKINGS = Integer.getInteger("load.bookings", 1000);
+    private static final String JDBC_URL = System.getProperty("load.jdbc-url", "jdbc:h2:mem:availability-load;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    private static final String R2DBC_URL = System.getProperty("load.r2dbc-url", "r2dbc:h2:mem:///availability-load?options=MODE=MySQL;DB_CLOSE_DELAY=-1");
+    private static final String USERNAME = System.getProperty("load.username", "sa");
+
+    private static ConfigurableApplicationContext servlet;
+    private static ConfigurableApplicationContext reactive;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @BeforeAll
+    static void startApplications() {
+        servlet = new SpringApplicationBuilder(JustlifeServiceApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + JDBC_URL,
+                        "--spring.datasource.username=" + USERNAME,
+                        "--justlife.availability.query-database=true",
+                        "--justlife.availability.cache.max-size=0");
+        seed();
+
+        reactive = ReactiveAvailabilityApplication.builder()
+                .run("--server.port=0",
+                        "--spring.r2dbc.url=" + R2DBC_URL,
+                        "--spring.r2dbc.username=" + USERNAME);
+    }
+
+    @AfterAll
+    static void stopApplications() {
+        if (reactive != null) {
+            reactive.close();
+        }
+        if (servlet != null) {
+            servlet.close();
+        }
+    }
+
+    @Test
+    void testConcurrencyScaling() throws Exception {
+        String sample = "/bookings/availability?date=2030-01-08&startTime=2030-01-08T10:00:00&duration=2&professionalsRequired=3";
+        assertEquals(get(servlet, sample).body(), get(reactive, sample).body(), "Both services give the same answer");
+
+        System.out.printf("Availability load: %d requests per level against %d professionals and %d bookings, max heap %d MB%n",
+                REQUESTS, VEHICLES * PROFESSIONALS_PER_VEHICLE, BOOKINGS, Runtime.getRuntime().maxMemory() >> 20);
+        for (int concurrency : CONCURRENCY) {
+            Level servletLevel = run(servlet, "http-nio", concurrency);
+            Level reactiveLevel = run(reactive, "reactor-http", concurrency);
+            servletLevel.print("servlet", concurrency);
+            reactiveLevel.print("reactive", concurrency);
+            assertEquals(REQUESTS, servletLevel.results().size() + servletLevel.failures(), "Every servlet request completed");
+            assertEquals(REQUESTS, reactiveLevel.results().size() + reactiveLevel.failures(), "Every reactive request completed");
+        }
+    }
+
+    /**
+     * Sends the requests of one level with at most the given number in flight, sampling the server threads meanwhile.
+     */
+    private Level run(ConfigurableApplicationContext application, String threadPrefix, int concurrency) throws Exception {
+        System.gc();
+        Semaphore inFlight = new Semaphore(concurrency);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger peakThreads = new AtomicInteger();
+        AtomicLong peakHeap = new AtomicLong();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            peakThreads.accumulateAndGet(countThreads(threadPrefix), Math::max);
+            peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        }, 0, 50, TimeUnit.MILLISECONDS);
+
+        List<CompletableFuture<?>> requests = new ArrayList<>(REQUESTS);
+        long started = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            requests.add(client.sendAsync(request(application, randomQuery()), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        } else {
+                            latencies.add(System.nanoTime() - sent);
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).exceptionally(error -> null).get(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        sampler.shutdownNow();
+
+        return new Level(new ArrayList<>(latencies), failures.get(), seconds, peakThreads.get(), peakHeap.get());
+    }
+
+    private HttpResponse<String> get(ConfigurableApplicationContext application, String path) throws Exception {
+        HttpResponse<String> response = client.send(request(application, path), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return response;
+    }
+
+    private static HttpRequest request(ConfigurableApplicationContext application, String path) {
+        int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofMinutes(1))
+                .build();
+    }
+
+    /**
+     * A check for a random duration and team size, at a half hour between 8:00 and 20:00 of one of the booked days.
+     */
+    private static String randomQuery() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime startTime = FIRST_DAY.plusDays(random.nextInt(DAYS)).plusHours(8).plusMinutes(30L * random.nextInt(25));
+        return "/bookings/availability?date=" + startTime.toLocalDate() + "&startTime=" + startTime + ":00"
+                + "&duration=" + (random.nextBoolean() ? 2 : 4) + "&professionalsRequired=" + (1 + random.nextInt(3));
+    }
+
+    private static int countThreads(String prefix) {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith(prefix))
+                .count();
+    }
+
+    /**
+     * Professionals without shifts, working 8:00 to 22:00 every day, and bookings spread over the days the requests
+     * ask for, taking the first available team like any client.
+     */
+    private static void seed() {
+        VehicleRepository vehicleRepository = servlet.getBean(VehicleRepository.class);
+        CleaningProfessionalRepository professionalRepository = servlet.getBean(CleaningProfessionalRepository.class);
+        BookingService bookingService = servlet.getBean(BookingService.class);
+
+        for (int v = 1; v <= VEHICLES; v++) {
+            Vehicle vehicle = new Vehicle();
+            vehicle.setName("Vehicle " + v);
+            vehicleRepository.save(vehicle);
+
+            for (int p = 1; p <= PROFESSIONALS_PER_VEHICLE; p++) {
+                CleaningProfessional professional = new CleaningProfessional();
+                professional.setName("Professional " + v + "-" + p);
+                professional.setVehicle(vehicle);
+                professionalRepository.save(professional);
+            }
+        }
+
+        Random random = new Random(42);
+        int created = 0;
+        for (int i = 0; i < BOOKINGS; i++) {
+            Booking booking = new Booking();
+            booking.setStartTime(FIRST_DAY.plusDays(random.nextInt(DAYS)).plusHours(8).plusMinutes(30L * random.nextInt(25)));
+            booking.setDuration(random.nextBoolean() ? 2 : 4);
+            booking.setProfessionalsRequired(1 + random.nextInt(3));
+            try {
+                bookingService.createBooking(booking);
+                created++;
+            } catch (IllegalStateException e) {
+                // Fully booked at that time
+            }
+        }
+        assertTrue(created > 0, "Some bookings were created");
+    }
+
+    private record Level(List<Long> results, int failures, double seconds, int peakThreads, long peakHeap) {
+
+        void print(String name, int concurrency) {
+            long[] latencies = results.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("  %-8s %5d in flight: %7.0f requests/s, p50 %7.1f ms, p99 %7.1f ms, %d failed, peak %d server threads, peak heap %d MB%n",
+                    name, concurrency, (latencies.length + failures) / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                    failures, peakThreads, peakHeap >> 20);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
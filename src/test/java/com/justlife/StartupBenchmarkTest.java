@@ -0,0 +1,191 @@
+package com.justlife;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Starts the application as separate processes and measures, for each way of running it, the time until it answers
+ * {@code /actuator/health}, the latency of the first and second availability checks, and the resident memory once
+ * ready:
+ * <ul>
+ *     <li>{@code jvm}: the regular build.</li>
+ *     <li>{@code jvm-aot}: the same classes started with {@code -Dspring.aot.enabled=true}, using the bean definitions
+ *     generated by the native profile instead of evaluating the configuration at startup.</li>
+ *     <li>{@code native}: the GraalVM native image, when it has been built.</li>
+ * </ul>
+ * Only runs with the stress profile, after the native profile has processed the classes:
+ * <pre>
+ * mvn -Pnative native:compile -DskipTests    (or mvn -Pnative package -DskipTests without GraalVM)
+ * mvn -Pstress test -Dtest=StartupBenchmarkTest -Dstartup.runs=5
+ * </pre>
+ * The JVM builds run on the test classpath against an embedded H2 database migrated by Flyway. The native image does
+ * not contain H2, so it needs a MySQL database given in {@code startup.args}, which then applies to every build.
+ */
+@Tag("stress")
+class StartupBenchmarkTest {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 3);
+    private static final String NATIVE_IMAGE = System.getProperty("startup.native-image", "target/justlife-service");
+    private static final String ARGS = System.getProperty("startup.args",
+            "--spring.datasource.url=jdbc:h2:mem:startup;MODE=MySQL;DB_CLOSE_DELAY=-1 --spring.flyway.enabled=true --spring.jpa.hibernate.ddl-auto=validate");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    @Test
+    void testStartupAndFirstRequest() throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        String classpath = System.getProperty("java.class.path");
+        String mainClass = JustlifeServiceApplication.class.getName();
+
+        List<Mode> modes = new ArrayList<>();
+        modes.add(new Mode("jvm", List.of(java, "-cp", classpath, mainClass)));
+        if (isAotProcessed()) {
+            modes.add(new Mode("jvm-aot", List.of(java, "-Dspring.aot.enabled=true", "-cp", classpath, mainClass)));
+        } else {
+            System.out.println("Skipping jvm-aot, run mvn -Pnative package -DskipTests first");
+        }
+        if (new File(NATIVE_IMAGE).canExecute()) {
+            modes.add(new Mode("native", List.of(NATIVE_IMAGE)));
+        } else {
+            System.out.println("Skipping native, no executable at " + NATIVE_IMAGE + ", build it with mvn -Pnative native:compile");
+        }
+
+        System.out.printf("Startup benchmark: median of %d runs%n", RUNS);
+        for (Mode mode : modes) {
+            List<Run> runs = new ArrayList<>();
+            for (int i = 0; i < RUNS; i++) {
+                runs.add(start(mode));
+            }
+            System.out.printf("  %-8s ready %6.0f ms, first availability check %6.1f ms, second %5.1f ms, resident memory %4d MB%n",
+                    mode.name(), median(runs, Run::readyMillis), median(runs, Run::firstRequestMillis),
+                    median(runs, Run::secondRequestMillis), (long) median(runs, run -> run.residentBytes() >> 20));
+        }
+        assertFalse(modes.isEmpty());
+    }
+
+    /**
+     * Starts the application, waits until it is ready, sends two availability checks and stops it.
+     */
+    private Run start(Mode mode) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(mode.command());
+        command.add("--server.port=" + port);
+        command.addAll(Arrays.asList(ARGS.trim().split("\\s+")));
+        Path log = Files.createTempFile("startup-" + mode.name(), ".log");
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            awaitReady(process, port, log);
+            long ready = System.nanoTime() - started;
+            long first = timeRequest(port, "/bookings/availability?date=2030-01-07&startTime=2030-01-07T10:00:00&duration=2&professionalsRequired=1");
+            long second = timeRequest(port, "/bookings/availability?date=2030-01-08&startTime=2030-01-08T10:00:00&duration=2&professionalsRequired=1");
+            return new Run(ready / 1e6, first / 1e6, second / 1e6, residentBytes(process));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+            Files.deleteIfExists(log);
+        }
+    }
+
+    private void awaitReady(Process process, int port, Path log) throws Exception {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The application exited during startup:\n" + Files.readString(log));
+            }
+            try {
+                if (get(port, "/actuator/health").statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("The application did not start within " + STARTUP_TIMEOUT + ":\n" + Files.readString(log));
+    }
+
+    private long timeRequest(int port, String path) throws Exception {
+        long started = System.nanoTime();
+        HttpResponse<String> response = get(port, path);
+        long latency = System.nanoTime() - started;
+        assertEquals(200, response.statusCode(), response.body());
+        return latency;
+    }
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Whether the native profile generated the AOT bean definitions of the application into the classes.
+     */
+    private static boolean isAotProcessed() {
+        try {
+            Class.forName(JustlifeServiceApplication.class.getName() + "__ApplicationContextInitializer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The resident set size of the process on Linux, 0 elsewhere.
+     */
+    private static long residentBytes(Process process) throws IOException {
+        Path status = Path.of("/proc", Long.toString(process.pid()), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> Long.parseLong(line.replaceAll("\\D", "")) * 1024)
+                .findFirst()
+                .orElse(0L);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static double median(List<Run> runs, ToDoubleFunction<Run> metric) {
+        double[] values = runs.stream().mapToDouble(metric).sorted().toArray();
+        return values[values.length / 2];
+    }
+
+    private record Mode(String name, List<String> command) {
+    }
+
+    private record Run(double readyMillis, double firstRequestMillis, double secondRequestMillis, long residentBytes) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.justlife.config;
+
+import com.justlife.dto.AvailableProfessional;
+import com.justlife.model.Booking;
+import com.justlife.model.ProfessionalDayOccupancy;
+import com.justlife.repository.BookingDetailRepository;
+import com.justlife.service.AllocationMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JustlifeRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new JustlifeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testRegisterHints_ReflectsEntitiesAndDtos() {
+        for (Class<?> type : new Class<?>[]{Booking.class, ProfessionalDayOccupancy.Key.class, AvailableProfessional.class}) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(type).withMemberCategories(
+                    MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS)
+                    .test(hints), type.getName());
+        }
+        assertFalse(RuntimeHintsPredicates.reflection().onType(JustlifeRuntimeHints.class).test(hints));
+    }
+
+    @Test
+    void testRegisterHints_ProxiesRepositoryProjections() {
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(BookingDetailRepository.ScheduledBooking.class,
+                TargetAware.class, SpringProxy.class, DecoratingProxy.class).test(hints));
+    }
+
+    @Test
+    void testRegisterHints_ReflectsPropertyEnums() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(AllocationMode.class).test(hints));
+    }
+}
@@ -0,0 +1,155 @@
+package com.justlife.config;
+
+import com.justlife.model.Booking;
+import com.justlife.model.CleaningProfessional;
+import com.justlife.model.Vehicle;
+import com.justlife.repository.CleaningProfessionalRepository;
+import com.justlife.repository.VehicleRepository;
+import com.justlife.service.AvailabilityCheckService;
+import com.justlife.service.BookingService;
+import com.justlife.service.VehicleService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routes reads between two embedded databases standing for the primary and its replica. The replica is migrated by
+ * Flyway and given copies of the primary's professionals and vehicles, but never the bookings made during a test, so
+ * a read shows which database it was answered from.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "justlife.datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "justlife.datasource.replica.max-lag=1h",
+        "justlife.availability.query-database=true"
+})
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static final int PROFESSIONALS = 3;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private AvailabilityCheckService availabilityCheckService;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private CleaningProfessionalRepository professionalRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        if (professionalRepository.count() == 0) {
+            Vehicle vehicle = new Vehicle();
+            vehicle.setName("Vehicle 1");
+            vehicleRepository.save(vehicle);
+
+            for (int p = 1; p <= PROFESSIONALS; p++) {
+                CleaningProfessional professional = new CleaningProfessional();
+                professional.setName("Professional " + p);
+                professional.setVehicle(vehicle);
+                professionalRepository.save(professional);
+            }
+        }
+        replicate("vehicle");
+        replicate("cleaning_professional");
+    }
+
+    @Test
+    void testReadOnlyServiceMethod_ReadsFromReplica() {
+        replica().update("MERGE INTO vehicle (id, name) KEY (id) VALUES (900, 'Replica vehicle')");
+
+        assertTrue(names(vehicleService.getAllVehicles()).contains("Replica vehicle"));
+        // Reads that do not opt in, like the ones made while writing, stay on the primary
+        assertFalse(names(vehicleRepository.findAll()).contains("Replica vehicle"));
+    }
+
+    @Test
+    void testAvailability_ReadsRecentlyBookedDatesFromPrimary() {
+        LocalDate bookedDay = LocalDate.of(2030, 2, 4);
+        LocalDate otherDay = bookedDay.plusDays(2);
+        Booking booking = new Booking();
+        booking.setStartTime(bookedDay.atTime(10, 0));
+        booking.setDuration(2);
+        booking.setProfessionalsRequired(PROFESSIONALS);
+        bookingService.createBooking(booking);
+        // Only the replica has the first professional booked all day on the other day
+        Long firstProfessional = professionalRepository.findAll().get(0).getId();
+        replica().update("INSERT INTO professional_day_occupancy (slot_day, professional_id, bitmap) VALUES (?, ?, ?)",
+                otherDay, firstProfessional, (1L << 48) - 1);
+
+        assertTrue(availabilityCheckService.checkAvailabilityByDateTime(bookedDay.atTime(10, 0), 2, 1).isEmpty());
+        List<CleaningProfessional> otherDayAvailable = availabilityCheckService.checkAvailabilityByDateTime(otherDay.atTime(10, 0), 2, PROFESSIONALS);
+        assertEquals(PROFESSIONALS - 1, otherDayAvailable.size());
+        assertFalse(otherDayAvailable.stream().anyMatch(professional -> professional.getId().equals(firstProfessional)));
+    }
+
+    @Test
+    @DirtiesContext
+    void testVehicleChange_SendsReadsToPrimary() {
+        replica().update("MERGE INTO vehicle (id, name) KEY (id) VALUES (900, 'Replica vehicle')");
+        Vehicle vehicle = new Vehicle();
+        vehicle.setName("Primary vehicle");
+        vehicleService.createVehicle(vehicle);
+
+        Set<String> names = names(vehicleService.getAllVehicles());
+        assertTrue(names.contains("Primary vehicle"));
+        assertFalse(names.contains("Replica vehicle"));
+    }
+
+    private JdbcTemplate replica() {
+        return new JdbcTemplate(replicaDataSource);
+    }
+
+    /**
+     * Copies the rows of a table from the primary to the replica, as replication would.
+     */
+    private void replicate(String table) {
+        for (Map<String, Object> row : new JdbcTemplate(primaryDataSource).queryForList("SELECT * FROM " + table)) {
+            String columns = String.join(", ", row.keySet());
+            String placeholders = row.keySet().stream().map(column -> "?").collect(Collectors.joining(", "));
+            replica().update("MERGE INTO " + table + " (" + columns + ") KEY (id) VALUES (" + placeholders + ")", row.values().toArray());
+        }
+    }
+
+    private static Set<String> names(List<Vehicle> vehicles) {
+        return vehicles.stream().map(Vehicle::getName).collect(Collectors.toSet());
+    }
+}
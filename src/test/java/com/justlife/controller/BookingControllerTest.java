@@ -1,7 +1,12 @@
 package com.justlife.controller;
 
+import com.justlife.dto.AvailabilityQueryResult;
+import com.justlife.dto.AvailableProfessional;
+import com.justlife.dto.BookingAssignment;
+import com.justlife.dto.BookingBatchResult;
+import com.justlife.dto.BookingDetailPage;
+import com.justlife.dto.ProfessionalFreeSlots;
 import com.justlife.model.Booking;
-import com.justlife.model.BookingDetail;
 import com.justlife.model.CleaningProfessional;
 import com.justlife.service.AvailabilityCheckService;
 import com.justlife.service.BookingService;
@@ -14,11 +19,15 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -69,7 +78,7 @@ public class BookingControllerTest {
                         .param("professionalsRequired", "1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(content().json("[{'id':1,'name':'John Doe'}]"));
+                .andExpect(content().json("[{'id':1,'name':'John Doe','vehicleId':null}]", true));
     }
 
     @Test
@@ -102,6 +111,35 @@ public class BookingControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void testCheckAvailability_StartTimeNotOnSlot() throws Exception {
+        mockMvc.perform(get("/bookings/availability")
+                        .param("date", "2024-07-22")
+                        .param("startTime", "2024-07-22T10:10:00")
+                        .param("duration", "2")
+                        .param("professionalsRequired", "1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testFindFreeSlots() throws Exception {
+        when(availabilityCheckService.findFreeSlots(LocalDate.of(2024, 7, 22))).thenReturn(List.of(new ProfessionalFreeSlots(1L, "John Doe", null,
+                Map.of(2, List.of(LocalTime.of(8, 0), LocalTime.of(8, 30)), 4, List.of(LocalTime.of(8, 0))))));
+
+        mockMvc.perform(get("/bookings/availability/slots")
+                        .param("date", "2024-07-22"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("[{'professionalId':1,'name':'John Doe','startTimes':{'2':['08:00:00','08:30:00'],'4':['08:00:00']}}]"));
+    }
+
+    @Test
+    void testFindFreeSlots_InvalidDateFormat() throws Exception {
+        mockMvc.perform(get("/bookings/availability/slots")
+                        .param("date", "22-07-2024"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testCreateBooking_ValidRequest() throws Exception {
         when(bookingService.createBooking(any(Booking.class))).thenReturn(booking);
@@ -136,6 +174,58 @@ public class BookingControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void testCreateBookings_ValidRequest() throws Exception {
+        when(bookingService.createBookings(anyList())).thenReturn(List.of(
+                BookingBatchResult.created(0, booking),
+                BookingBatchResult.rejected(1, "Not enough professionals available for the requested time")));
+
+        String bookingsJson = "[{\"startTime\":\"2024-07-22T10:00:00\",\"duration\":2,\"professionalsRequired\":1},"
+                + "{\"startTime\":\"2024-07-22T10:00:00\",\"duration\":4,\"professionalsRequired\":3}]";
+
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookingsJson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("[{'index':0,'status':'CREATED','booking':{'id':1}},"
+                        + "{'index':1,'status':'REJECTED','error':'Not enough professionals available for the requested time'}]"));
+    }
+
+    @Test
+    void testCheckAvailabilityBulk_ValidRequest() throws Exception {
+        when(availabilityCheckService.checkAvailability(anyList())).thenReturn(List.of(
+                AvailabilityQueryResult.answered(0, List.of(AvailableProfessional.of(professional))),
+                AvailabilityQueryResult.rejected(1, "Invalid booking duration. Must be 2 or 4 hours.")));
+
+        String queriesJson = "[{\"date\":\"2024-07-22\",\"startTime\":\"2024-07-22T10:00:00\",\"duration\":2,\"professionalsRequired\":1},"
+                + "{\"date\":\"2024-07-22\",\"startTime\":\"2024-07-22T10:00:00\",\"duration\":3}]";
+
+        mockMvc.perform(post("/bookings/availability/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(queriesJson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("[{'index':0,'professionals':[{'id':1,'name':'John Doe'}]},"
+                        + "{'index':1,'error':'Invalid booking duration. Must be 2 or 4 hours.'}]"));
+    }
+
+    @Test
+    void testCheckAvailabilityBulk_NoQueries() throws Exception {
+        mockMvc.perform(post("/bookings/availability/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testCreateBookings_EmptyBatch() throws Exception {
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testUpdateBooking_ValidRequest() throws Exception {
         when(bookingService.updateBooking(any(Long.class), any(Booking.class))).thenReturn(booking);
@@ -171,17 +261,35 @@ public class BookingControllerTest {
     }
 
     @Test
-    void testGetAllBookingDetails() throws Exception {
-        List<BookingDetail> bookingDetails = new ArrayList<>();
-        BookingDetail bookingDetail = new BookingDetail();
-        bookingDetail.setId(1L);
-        bookingDetails.add(bookingDetail);
-
-        when(bookingService.getAllBookingDetails()).thenReturn(bookingDetails);
-
-        mockMvc.perform(get("/bookings"))
+    void testGetBookingDetails() throws Exception {
+        BookingAssignment assignment = new BookingAssignment(1L, 5L, LocalDateTime.of(2024, 7, 22, 10, 0),
+                LocalDateTime.of(2024, 7, 22, 12, 0), 2, 1L, "John Doe", 3L);
+
+        when(bookingService.getBookingDetails(LocalDate.of(2024, 7, 22), null, 1L, null, "abc", 10))
+                .thenReturn(new BookingDetailPage(List.of(assignment), "def"));
+
+        mockMvc.perform(get("/bookings")
+                        .param("from", "2024-07-22")
+                        .param("professionalId", "1")
+                        .param("cursor", "abc")
+                        .param("size", "10"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(content().json("[{'id':1}]"));
+                .andExpect(content().json("{'items':[{'id':1,'bookingId':5,'startTime':'2024-07-22T10:00:00','endTime':'2024-07-22T12:00:00',"
+                        + "'duration':2,'professionalId':1,'professionalName':'John Doe','vehicleId':3}],'nextCursor':'def'}", true));
+    }
+
+    @Test
+    void testGetBookingDetails_InvalidPageSize() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetBookingDetails_InvalidDateFormat() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .param("to", "22-07-2024"))
+                .andExpect(status().isBadRequest());
     }
 }
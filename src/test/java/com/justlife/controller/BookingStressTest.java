@@ -0,0 +1,237 @@
+package com.justlife.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.justlife.model.Booking;
+import com.justlife.model.BookingDetail;
+import com.justlife.model.CleaningProfessional;
+import com.justlife.model.Vehicle;
+import com.justlife.repository.BookingDetailRepository;
+import com.justlife.repository.CleaningProfessionalRepository;
+import com.justlife.repository.VehicleRepository;
+import com.justlife.service.ProfessionalScheduleIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires concurrent {@code POST /bookings} and {@code PUT /bookings/{id}} requests at overlapping slots of a few days
+ * over HTTP, then reports throughput and latency per request type and checks that no professional ended up in two
+ * bookings less than a break apart.
+ * <p>
+ * Only runs with the stress profile. The workload and the allocation strategy are set with system properties:
+ * <pre>
+ * mvn -Pstress test -Dstress.requests=5000 -Dstress.threads=64 -Djustlife.booking.allocation-mode=skip-locked
+ * </pre>
+ */
+@Tag("stress")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:booking-stress;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class BookingStressTest {
+
+    private static final LocalDateTime FIRST_DAY = LocalDateTime.of(2030, 1, 7, 0, 0);
+    private static final int PROFESSIONALS_PER_VEHICLE = 4;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${stress.requests:2000}")
+    private int requests;
+
+    @Value("${stress.threads:32}")
+    private int threads;
+
+    @Value("${stress.vehicles:10}")
+    private int vehicles;
+
+    /**
+     * Consecutive days the bookings are spread over, from a Monday. Fewer days means more contention.
+     */
+    @Value("${stress.days:5}")
+    private int days;
+
+    /**
+     * Share of the requests that reschedule a booking created earlier in the run.
+     */
+    @Value("${stress.update-ratio:0.25}")
+    private double updateRatio;
+
+    @Value("${justlife.booking.allocation-mode:striped-lock}")
+    private String allocationMode;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private CleaningProfessionalRepository professionalRepository;
+
+    @Autowired
+    private BookingDetailRepository bookingDetailRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void testConcurrentBookingsAndReschedules() throws Exception {
+        for (int v = 1; v <= vehicles; v++) {
+            Vehicle vehicle = new Vehicle();
+            vehicle.setName("Vehicle " + v);
+            vehicleRepository.save(vehicle);
+
+            for (int p = 1; p <= PROFESSIONALS_PER_VEHICLE; p++) {
+                CleaningProfessional professional = new CleaningProfessional();
+                professional.setName("Professional " + v + "-" + p);
+                professional.setVehicle(vehicle);
+                professionalRepository.save(professional);
+            }
+        }
+
+        List<Long> bookingIds = new CopyOnWriteArrayList<>();
+        Map<String, ConcurrentLinkedQueue<Result>> results = Map.of("POST", new ConcurrentLinkedQueue<>(), "PUT", new ConcurrentLinkedQueue<>());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    String body = randomBooking(random);
+                    if (!bookingIds.isEmpty() && random.nextDouble() < updateRatio) {
+                        Long id = bookingIds.get(random.nextInt(bookingIds.size()));
+                        results.get("PUT").add(send(HttpRequest.newBuilder(uri("/bookings/" + id)).PUT(HttpRequest.BodyPublishers.ofString(body)), null));
+                    } else {
+                        results.get("POST").add(send(HttpRequest.newBuilder(uri("/bookings")).POST(HttpRequest.BodyPublishers.ofString(body)), bookingIds));
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("Booking stress, %s allocation: %d requests on %d threads against %d professionals over %d days in %.1f s, %.0f requests/s%n",
+                allocationMode, requests, threads, vehicles * PROFESSIONALS_PER_VEHICLE, days, seconds, requests / seconds);
+        results.forEach((method, methodResults) -> report(method, new ArrayList<>(methodResults)));
+
+        List<String> violations = findBreakViolations();
+        violations.forEach(System.out::println);
+        System.out.printf("Break violations: %d%n", violations.size());
+
+        assertEquals(requests, results.values().stream().mapToInt(ConcurrentLinkedQueue::size).sum(), "Every request got a response");
+        assertTrue(violations.isEmpty(), "No professional is booked twice or without a break");
+    }
+
+    /**
+     * A booking of a random duration and team size, starting on a half hour between 8:00 and 20:00 of one of the days
+     * so that requests keep colliding.
+     */
+    private String randomBooking(ThreadLocalRandom random) {
+        LocalDateTime startTime = FIRST_DAY.plusDays(random.nextInt(days)).plusHours(8).plusMinutes(30L * random.nextInt(25));
+        int duration = random.nextBoolean() ? 2 : 4;
+        int professionalsRequired = 1 + random.nextInt(3);
+        return "{\"startTime\":\"" + startTime + "\",\"duration\":" + duration + ",\"professionalsRequired\":" + professionalsRequired + "}";
+    }
+
+    private Result send(HttpRequest.Builder request, List<Long> createdIds) throws Exception {
+        long started = System.nanoTime();
+        HttpResponse<String> response = client.send(request.header("Content-Type", "application/json").build(),
+                HttpResponse.BodyHandlers.ofString());
+        long latency = System.nanoTime() - started;
+
+        if (response.statusCode() == 200 && createdIds != null) {
+            createdIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+        }
+        return new Result(response.statusCode(), latency);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static void report(String method, List<Result> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        long[] latencies = results.stream().mapToLong(Result::nanos).sorted().toArray();
+        Map<Integer, Long> byStatus = results.stream().collect(Collectors.groupingBy(Result::status, Collectors.counting()));
+        System.out.printf("  %-4s %6d requests, statuses %s, p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                method, results.size(), byStatus, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * Lists every booking of a professional that starts before the professional's previous bookings end plus a break.
+     */
+    private List<String> findBreakViolations() {
+        Map<Long, List<Booking>> byProfessional = bookingDetailRepository.findAll().stream()
+                .collect(Collectors.groupingBy(detail -> detail.getCleaningProfessional().getId(),
+                        Collectors.mapping(BookingDetail::getBooking, Collectors.toList())));
+
+        List<String> violations = new ArrayList<>();
+        byProfessional.forEach((professionalId, bookings) -> {
+            List<Booking> schedule = bookings.stream()
+                    .filter(distinctById())
+                    .sorted(Comparator.comparing(Booking::getStartTime))
+                    .toList();
+            Booking latest = null;
+            for (Booking booking : schedule) {
+                if (latest != null && booking.getStartTime().isBefore(latest.getEndTime().plus(ProfessionalScheduleIndex.BREAK))) {
+                    violations.add(String.format("Professional %d: booking %d %s-%s and booking %d %s-%s", professionalId,
+                            latest.getId(), latest.getStartTime(), latest.getEndTime(),
+                            booking.getId(), booking.getStartTime(), booking.getEndTime()));
+                }
+                if (latest == null || booking.getEndTime().isAfter(latest.getEndTime())) {
+                    latest = booking;
+                }
+            }
+        });
+        return violations;
+    }
+
+    private static Predicate<Booking> distinctById() {
+        Set<Long> seen = new HashSet<>();
+        return booking -> seen.add(booking.getId());
+    }
+
+    private record Result(int status, long nanos) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.justlife.controller;
+
+import com.justlife.model.CleaningProfessional;
+import com.justlife.model.Vehicle;
+import com.justlife.repository.CleaningProfessionalRepository;
+import com.justlife.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metrics-endpoint;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private CleaningProfessionalRepository professionalRepository;
+
+    @Test
+    void testPrometheusEndpoint_ExposesBookingPipelineMetrics() throws Exception {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setName("Vehicle 1");
+        vehicleRepository.save(vehicle);
+
+        CleaningProfessional professional = new CleaningProfessional();
+        professional.setName("John Doe");
+        professional.setVehicle(vehicle);
+        professionalRepository.save(professional);
+
+        // The second booking starts before working hours and is rejected
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"startTime\":\"2030-01-07T10:00:00\",\"duration\":2,\"professionalsRequired\":1},"
+                                + "{\"startTime\":\"2030-01-07T07:00:00\",\"duration\":2,\"professionalsRequired\":1}]"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/bookings/availability/slots").param("date", "2030-01-07"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("method=\"createBookings\",operation=\"create-batch\",le=")))
+                .andExpect(content().string(containsString("method=\"findFreeSlots\",operation=\"free-slots\",le=")))
+                .andExpect(content().string(containsString("justlife_availability_candidates_sum{operation=\"free-slots\"} 1.0")))
+                .andExpect(content().string(containsString("justlife_booking_rejections_total{reason=\"not_enough_professionals\"} 1.0")))
+                .andExpect(content().string(containsString("justlife_http_sql_statements_count{method=\"POST\",uri=\"/bookings/batch\"} 1")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")));
+    }
+}
@@ -0,0 +1,223 @@
+package com.justlife.repository;
+
+import com.justlife.dto.BookingAssignment;
+import com.justlife.dto.BookingDetailCursor;
+import com.justlife.model.Booking;
+import com.justlife.model.BookingDetail;
+import com.justlife.model.CleaningProfessional;
+import com.justlife.model.Vehicle;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookingDetailRepositoryTest {
+
+    private static final int DETAILS = 20;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingDetailRepository bookingDetailRepository;
+
+    @Autowired
+    private CleaningProfessionalRepository professionalRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testSaveAll_SendsInsertsInBatches() {
+        List<CleaningProfessional> professionals = new ArrayList<>();
+        for (int i = 0; i < DETAILS; i++) {
+            CleaningProfessional professional = new CleaningProfessional();
+            professional.setName("Professional " + i);
+            professionals.add(professional);
+        }
+        professionalRepository.saveAllAndFlush(professionals);
+
+        Booking booking = new Booking();
+        booking.setStartTime(LocalDateTime.of(2024, 7, 22, 10, 0));
+        booking.setEndTime(LocalDateTime.of(2024, 7, 22, 12, 0));
+        booking.setDuration(2);
+        booking.setProfessionalsRequired(1);
+        bookingRepository.save(booking);
+
+        List<BookingDetail> details = new ArrayList<>();
+        for (CleaningProfessional professional : professionals) {
+            BookingDetail detail = new BookingDetail();
+            detail.setBooking(booking);
+            detail.setCleaningProfessional(professional);
+            detail.setStartTime(booking.getStartTime());
+            details.add(detail);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        bookingDetailRepository.saveAllAndFlush(details);
+
+        assertEquals(DETAILS + 1, statistics.getEntityInsertCount());
+        // One statement for the booking and one for all details, plus the id block lookups of both tables
+        assertTrue(statistics.getPrepareStatementCount() <= 6, "Statements prepared: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindPage_WalksAllDetailsInStartTimeOrder() {
+        Vehicle vehicle = newVehicle("Vehicle 1");
+        CleaningProfessional first = newProfessional("Professional 1", vehicle);
+        CleaningProfessional second = newProfessional("Professional 2", vehicle);
+        List<BookingDetail> expected = List.of(
+                newDetail(newBooking(LocalDateTime.of(2024, 7, 22, 10, 0)), first),
+                newDetail(newBooking(LocalDateTime.of(2024, 7, 22, 10, 0)), second),
+                newDetail(newBooking(LocalDateTime.of(2024, 7, 22, 14, 0)), first),
+                newDetail(newBooking(LocalDateTime.of(2024, 7, 23, 8, 0)), second),
+                newDetail(newBooking(LocalDateTime.of(2024, 7, 23, 8, 0)), first));
+
+        List<Long> walked = new ArrayList<>();
+        BookingDetailCursor after = null;
+        List<BookingAssignment> page;
+        do {
+            page = bookingDetailRepository.findPage(null, null, null, null, after, 2);
+            page.forEach(detail -> walked.add(detail.getId()));
+            after = page.isEmpty() ? null : BookingDetailCursor.of(page.get(page.size() - 1));
+        } while (page.size() == 2);
+
+        List<Long> expectedIds = new ArrayList<>(expected.stream().map(BookingDetail::getId).toList());
+        // Details of bookings starting at the same time are ordered by id
+        expectedIds.subList(3, 5).sort(null);
+        assertEquals(expectedIds, walked);
+    }
+
+    @Test
+    void testFindPage_Filters() {
+        Vehicle firstVehicle = newVehicle("Vehicle 1");
+        Vehicle secondVehicle = newVehicle("Vehicle 2");
+        CleaningProfessional first = newProfessional("Professional 1", firstVehicle);
+        CleaningProfessional second = newProfessional("Professional 2", secondVehicle);
+        BookingDetail monday = newDetail(newBooking(LocalDateTime.of(2024, 7, 22, 10, 0)), first);
+        BookingDetail tuesday = newDetail(newBooking(LocalDateTime.of(2024, 7, 23, 10, 0)), first);
+        BookingDetail tuesdayOther = newDetail(newBooking(LocalDateTime.of(2024, 7, 23, 16, 0)), second);
+
+        assertEquals(ids(tuesday, tuesdayOther), ids(bookingDetailRepository.findPage(
+                LocalDateTime.of(2024, 7, 23, 0, 0), LocalDateTime.of(2024, 7, 24, 0, 0), null, null, null, 10)));
+        assertEquals(ids(monday, tuesday), ids(bookingDetailRepository.findPage(null, null, first.getId(), null, null, 10)));
+        assertEquals(ids(tuesdayOther), ids(bookingDetailRepository.findPage(null, null, null, secondVehicle.getId(), null, 10)));
+        assertEquals(List.of(), bookingDetailRepository.findPage(
+                null, LocalDateTime.of(2024, 7, 23, 0, 0), null, secondVehicle.getId(), null, 10));
+    }
+
+    @Test
+    void testFindPage_SelectsRenderedColumnsInOneStatement() {
+        Vehicle vehicle = newVehicle("Vehicle 1");
+        CleaningProfessional professional = newProfessional("Professional 1", vehicle);
+        Booking booking = newBooking(LocalDateTime.of(2024, 7, 22, 10, 0));
+        BookingDetail detail = newDetail(booking, professional);
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<BookingAssignment> page = bookingDetailRepository.findPage(null, null, null, null, null, 10);
+
+        assertEquals(List.of(new BookingAssignment(detail.getId(), booking.getId(), booking.getStartTime(), booking.getEndTime(),
+                2, professional.getId(), "Professional 1", vehicle.getId())), page);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindAll_FetchesBookingsAndProfessionalsInOneStatement() {
+        Vehicle vehicle = newVehicle("Vehicle 1");
+        CleaningProfessional first = newProfessional("Professional 1", vehicle);
+        CleaningProfessional second = newProfessional("Professional 2", vehicle);
+        newDetail(newBooking(LocalDateTime.of(2024, 7, 22, 10, 0)), first);
+        newDetail(newBooking(LocalDateTime.of(2024, 7, 22, 14, 0)), second);
+        newDetail(newBooking(LocalDateTime.of(2024, 7, 23, 10, 0)), first);
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<BookingDetail> details = bookingDetailRepository.findAll();
+        details.forEach(detail -> {
+            detail.getBooking().getStartTime();
+            detail.getCleaningProfessional().getName();
+        });
+
+        assertEquals(3, details.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindByProfessionalAndStartTime_FetchesBookingsInOneStatement() {
+        Vehicle vehicle = newVehicle("Vehicle 1");
+        CleaningProfessional professional = newProfessional("Professional 1", vehicle);
+        newDetail(newBooking(LocalDateTime.of(2024, 7, 22, 10, 0)), professional);
+        newDetail(newBooking(LocalDateTime.of(2024, 7, 22, 14, 0)), professional);
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<BookingDetail> details = bookingDetailRepository.findByCleaningProfessionalIdAndBookingStartTimeBetween(
+                professional.getId(), LocalDateTime.of(2024, 7, 22, 0, 0), LocalDateTime.of(2024, 7, 23, 0, 0));
+        details.forEach(detail -> detail.getBooking().getEndTime());
+
+        assertEquals(2, details.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private static List<Long> ids(BookingDetail... details) {
+        return Arrays.stream(details).map(BookingDetail::getId).toList();
+    }
+
+    private static List<Long> ids(List<BookingAssignment> assignments) {
+        return assignments.stream().map(BookingAssignment::getId).toList();
+    }
+
+    private Vehicle newVehicle(String name) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setName(name);
+        return vehicleRepository.save(vehicle);
+    }
+
+    private CleaningProfessional newProfessional(String name, Vehicle vehicle) {
+        CleaningProfessional professional = new CleaningProfessional();
+        professional.setName(name);
+        professional.setVehicle(vehicle);
+        return professionalRepository.save(professional);
+    }
+
+    private Booking newBooking(LocalDateTime startTime) {
+        Booking booking = new Booking();
+        booking.setStartTime(startTime);
+        booking.setEndTime(startTime.plusHours(2));
+        booking.setDuration(2);
+        booking.setProfessionalsRequired(1);
+        return bookingRepository.save(booking);
+    }
+
+    private BookingDetail newDetail(Booking booking, CleaningProfessional professional) {
+        BookingDetail detail = new BookingDetail();
+        detail.setBooking(booking);
+        detail.setCleaningProfessional(professional);
+        detail.setStartTime(booking.getStartTime());
+        return bookingDetailRepository.saveAndFlush(detail);
+    }
+}
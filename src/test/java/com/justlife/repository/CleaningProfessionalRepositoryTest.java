@@ -0,0 +1,169 @@
+package com.justlife.repository;
+
+import com.justlife.model.CleaningProfessional;
+import com.justlife.model.ProfessionalDayOccupancy;
+import com.justlife.model.Vehicle;
+import com.justlife.model.WorkingShift;
+import com.justlife.service.WeeklyShiftCalendar;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CleaningProfessionalRepositoryTest {
+
+    @Autowired
+    private CleaningProfessionalRepository professionalRepository;
+
+    @Autowired
+    private ProfessionalDayOccupancyRepository dayOccupancyRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private CleaningProfessional booked;
+    private CleaningProfessional free;
+
+    @BeforeEach
+    void setUp() {
+        booked = professionalRepository.save(newProfessional("John Doe", false));
+        free = professionalRepository.save(newProfessional("Jane Doe", true));
+
+        // A booking from 10:00 to 12:00, holding the slots up to the end of its break at 12:30
+        LocalDate day = LocalDate.of(2024, 7, 22);
+        dayOccupancyRepository.save(new ProfessionalDayOccupancy(booked.getId(), day,
+                WeeklyShiftCalendar.touchedSlots(day.atStartOfDay(), day.atTime(10, 0), day.atTime(12, 30))));
+    }
+
+    @Test
+    void testFindAvailable_ExcludesBookedProfessionalsIncludingBreak() {
+        List<CleaningProfessional> available = findAvailable(LocalDateTime.of(2024, 7, 22, 12, 0), 2, 3);
+
+        assertEquals(List.of(free.getId()), ids(available));
+    }
+
+    @Test
+    void testFindAvailable_AfterBreak() {
+        List<CleaningProfessional> available = findAvailable(LocalDateTime.of(2024, 7, 22, 12, 30), 2, 3);
+
+        assertEquals(List.of(booked.getId(), free.getId()), ids(available));
+    }
+
+    @Test
+    void testFindAvailable_OutsideWorkingHours() {
+        List<CleaningProfessional> available = findAvailable(LocalDateTime.of(2024, 7, 22, 21, 0), 2, 3);
+
+        assertEquals(0, available.size());
+    }
+
+    @Test
+    void testFindAvailable_Friday() {
+        List<CleaningProfessional> available = findAvailable(LocalDateTime.of(2024, 7, 26, 10, 0), 2, 3);
+
+        assertEquals(List.of(free.getId()), ids(available));
+    }
+
+    @Test
+    void testFindAvailable_Limit() {
+        List<CleaningProfessional> available = findAvailable(LocalDateTime.of(2024, 7, 23, 10, 0), 2, 1);
+
+        assertEquals(List.of(booked.getId()), ids(available));
+    }
+
+    @Test
+    void testFindAvailable_Shifts() {
+        CleaningProfessional weekend = newProfessional("Jim Doe", false);
+        weekend.getShifts().add(new WorkingShift(DayOfWeek.SATURDAY, 6 * 60, 14 * 60));
+        professionalRepository.save(weekend);
+
+        assertEquals(List.of(weekend.getId()), ids(findAvailable(LocalDateTime.of(2024, 7, 27, 6, 0), 4, 3)));
+        assertEquals(List.of(booked.getId(), free.getId()), ids(findAvailable(LocalDateTime.of(2024, 7, 27, 14, 0), 2, 3)));
+        assertEquals(List.of(booked.getId(), free.getId()), ids(findAvailable(LocalDateTime.of(2024, 7, 23, 10, 0), 2, 3)));
+    }
+
+    @Test
+    void testFindAll_FetchesShiftsAndVehiclesInOneStatement() {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setName("Vehicle 1");
+        vehicleRepository.save(vehicle);
+        booked.setVehicle(vehicle);
+        booked.getShifts().add(new WorkingShift(DayOfWeek.MONDAY, 8 * 60, 16 * 60));
+        booked.getShifts().add(new WorkingShift(DayOfWeek.TUESDAY, 8 * 60, 16 * 60));
+        free.setVehicle(vehicle);
+        professionalRepository.saveAllAndFlush(List.of(booked, free));
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<CleaningProfessional> professionals = professionalRepository.findAll();
+        professionals.forEach(professional -> {
+            professional.getShifts().size();
+            professional.getVehicle().getName();
+        });
+
+        assertEquals(2, professionals.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindAvailable_BreakAfterMidnight() {
+        CleaningProfessional lateShift = newProfessional("Jim Doe", false);
+        lateShift.getShifts().add(new WorkingShift(DayOfWeek.MONDAY, 20 * 60, 24 * 60));
+        professionalRepository.save(lateShift);
+        CleaningProfessional bookedAfterMidnight = newProfessional("Jack Doe", false);
+        bookedAfterMidnight.getShifts().add(new WorkingShift(DayOfWeek.MONDAY, 20 * 60, 24 * 60));
+        professionalRepository.save(bookedAfterMidnight);
+
+        // A booking from midnight to 2:00, a booking ending at midnight needs its first slot for the break
+        LocalDate nextDay = LocalDate.of(2024, 7, 23);
+        dayOccupancyRepository.save(new ProfessionalDayOccupancy(bookedAfterMidnight.getId(), nextDay,
+                WeeklyShiftCalendar.touchedSlots(nextDay.atStartOfDay(), nextDay.atStartOfDay(), nextDay.atTime(2, 30))));
+
+        assertEquals(List.of(lateShift.getId()), ids(findAvailable(LocalDateTime.of(2024, 7, 22, 22, 0), 2, 3)));
+        assertEquals(List.of(lateShift.getId(), bookedAfterMidnight.getId()), ids(findAvailable(LocalDateTime.of(2024, 7, 22, 21, 30), 2, 3)));
+    }
+
+    private List<CleaningProfessional> findAvailable(LocalDateTime startTime, int duration, int limit) {
+        LocalDateTime endTime = startTime.plusHours(duration);
+        DayOfWeek day = startTime.getDayOfWeek();
+        int startMinute = startTime.getHour() * 60 + startTime.getMinute();
+        int endMinute = startMinute + duration * 60;
+        LocalDate startDay = startTime.toLocalDate();
+        LocalDate nextDay = startDay.plusDays(1);
+        return professionalRepository.findAvailable(day, day == DayOfWeek.FRIDAY, startMinute, endMinute,
+                startTime.toLocalTime().toString(), endMinute == 24 * 60 ? "24:00" : endTime.toLocalTime().toString(),
+                startDay, WeeklyShiftCalendar.touchedSlots(startDay.atStartOfDay(), startTime, endTime.plusMinutes(30)),
+                nextDay, WeeklyShiftCalendar.touchedSlots(nextDay.atStartOfDay(), startTime, endTime.plusMinutes(30)),
+                Limit.of(limit));
+    }
+
+    private static CleaningProfessional newProfessional(String name, boolean workingOnFridays) {
+        CleaningProfessional professional = new CleaningProfessional();
+        professional.setName(name);
+        professional.setWorkingOnFridays(workingOnFridays);
+        return professional;
+    }
+
+    private static List<Long> ids(List<CleaningProfessional> professionals) {
+        return professionals.stream().map(CleaningProfessional::getId).toList();
+    }
+}
@@ -0,0 +1,123 @@
+package com.justlife.repository;
+
+import com.justlife.model.ProfessionalDayOccupancy;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+class ProfessionalDayOccupancyRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 7, 22);
+
+    @Autowired
+    private ProfessionalDayOccupancyRepository dayOccupancyRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testOccupy_AddsSlotsToExistingRow() {
+        dayOccupancyRepository.saveAndFlush(new ProfessionalDayOccupancy(1L, DAY, 0b11L << 20));
+
+        dayOccupancyRepository.occupy(1L, DAY, 0b11L << 30);
+
+        assertEquals(0b11L << 20 | 0b11L << 30, bitmap(1L, DAY));
+    }
+
+    @Test
+    void testOccupy_InsertsFirstRowOfDay() {
+        dayOccupancyRepository.occupy(2L, DAY, 0b11L << 30);
+
+        assertEquals(0b11L << 30, bitmap(2L, DAY));
+    }
+
+    @Test
+    void testOccupy_KeepsSlotsAlreadyReserved() {
+        dayOccupancyRepository.saveAndFlush(new ProfessionalDayOccupancy(1L, DAY, 0b11L << 20));
+
+        dayOccupancyRepository.occupy(1L, DAY, 0b111L << 20);
+
+        assertEquals(0b111L << 20, bitmap(1L, DAY));
+    }
+
+    @Test
+    void testOccupy_LastSlotOfTheDay() {
+        dayOccupancyRepository.saveAndFlush(new ProfessionalDayOccupancy(1L, DAY, 1L));
+
+        dayOccupancyRepository.occupy(1L, DAY, 1L << 47);
+
+        assertEquals(1L << 47 | 1L, bitmap(1L, DAY));
+    }
+
+    @Test
+    void testSaveAll_RejectsSecondRowForSameDay() {
+        dayOccupancyRepository.saveAndFlush(new ProfessionalDayOccupancy(1L, DAY, 0b11L << 20));
+        entityManager.clear();
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+                dayOccupancyRepository.saveAllAndFlush(List.of(new ProfessionalDayOccupancy(1L, DAY, 0b11L << 30))));
+    }
+
+    @Test
+    void testVacate_ClearsSlotsOfProfessional() {
+        dayOccupancyRepository.saveAllAndFlush(List.of(
+                new ProfessionalDayOccupancy(1L, DAY, 0b11L << 20 | 0b11L << 30),
+                new ProfessionalDayOccupancy(2L, DAY, 0b11L << 20)));
+
+        assertEquals(1, dayOccupancyRepository.vacate(1L, DAY, 0b11L << 20));
+
+        assertEquals(0b11L << 30, bitmap(1L, DAY));
+        assertEquals(0b11L << 20, bitmap(2L, DAY));
+    }
+
+    @Test
+    void testVacate_LeavesClearSlotsClear() {
+        dayOccupancyRepository.saveAndFlush(new ProfessionalDayOccupancy(1L, DAY, 0b01L << 20 | 1L << 47));
+
+        dayOccupancyRepository.vacate(1L, DAY, 0b11L << 20);
+
+        assertEquals(1L << 47, bitmap(1L, DAY));
+    }
+
+    @Test
+    void testFindByDayBetween() {
+        dayOccupancyRepository.saveAllAndFlush(List.of(
+                new ProfessionalDayOccupancy(1L, DAY.minusDays(1), 1L),
+                new ProfessionalDayOccupancy(1L, DAY, 1L),
+                new ProfessionalDayOccupancy(2L, DAY.plusDays(1), 1L),
+                new ProfessionalDayOccupancy(2L, DAY.plusDays(2), 1L)));
+
+        assertEquals(List.of(DAY, DAY.plusDays(1)), dayOccupancyRepository.findByDayBetween(DAY, DAY.plusDays(1)).stream()
+                .map(ProfessionalDayOccupancy::getDay)
+                .sorted()
+                .toList());
+    }
+
+    @Test
+    void testFindByDayIn() {
+        dayOccupancyRepository.saveAllAndFlush(List.of(
+                new ProfessionalDayOccupancy(1L, DAY, 1L),
+                new ProfessionalDayOccupancy(1L, DAY.plusDays(1), 1L),
+                new ProfessionalDayOccupancy(2L, DAY.plusDays(7), 1L)));
+
+        assertEquals(List.of(DAY, DAY.plusDays(7)), dayOccupancyRepository.findByDayIn(List.of(DAY, DAY.plusDays(7))).stream()
+                .map(ProfessionalDayOccupancy::getDay)
+                .sorted()
+                .toList());
+    }
+
+    private long bitmap(Long professionalId, LocalDate day) {
+        // The updates bypass the entities already loaded
+        entityManager.clear();
+        return dayOccupancyRepository.findById(new ProfessionalDayOccupancy.Key(day, professionalId)).orElseThrow().getBitmap();
+    }
+}
@@ -0,0 +1,62 @@
+package com.justlife.repository;
+
+import com.justlife.model.ProfessionalSlotReservation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+class ProfessionalSlotReservationRepositoryTest {
+
+    private static final LocalDateTime SLOT = LocalDateTime.of(2024, 7, 22, 10, 0);
+
+    @Autowired
+    private ProfessionalSlotReservationRepository slotReservationRepository;
+
+    @Test
+    void testSaveAll_RejectsSlotReservedByAnotherBooking() {
+        slotReservationRepository.saveAllAndFlush(List.of(
+                new ProfessionalSlotReservation(1L, SLOT, 1L),
+                new ProfessionalSlotReservation(2L, SLOT, 1L)));
+
+        assertThrows(DataIntegrityViolationException.class, () -> slotReservationRepository.saveAllAndFlush(List.of(
+                new ProfessionalSlotReservation(3L, SLOT, 2L),
+                new ProfessionalSlotReservation(1L, SLOT, 2L))));
+    }
+
+    @Test
+    void testDeleteByBookingId() {
+        slotReservationRepository.saveAllAndFlush(List.of(
+                new ProfessionalSlotReservation(1L, SLOT, 1L),
+                new ProfessionalSlotReservation(1L, SLOT.plusMinutes(30), 2L)));
+
+        slotReservationRepository.deleteByBookingId(1L);
+
+        assertEquals(1, slotReservationRepository.count());
+        slotReservationRepository.saveAndFlush(new ProfessionalSlotReservation(1L, SLOT, 3L));
+    }
+
+    @Test
+    void testDeleteAllExcept_KeepsSlotsOfStayingProfessionals() {
+        slotReservationRepository.saveAllAndFlush(List.of(
+                new ProfessionalSlotReservation(1L, SLOT, 1L),
+                new ProfessionalSlotReservation(1L, SLOT.plusMinutes(30), 1L),
+                new ProfessionalSlotReservation(2L, SLOT, 1L),
+                new ProfessionalSlotReservation(2L, SLOT.plusMinutes(30), 1L),
+                new ProfessionalSlotReservation(3L, SLOT, 2L)));
+
+        assertEquals(3, slotReservationRepository.deleteAllExcept(1L, List.of(1L), List.of(SLOT.plusMinutes(30))));
+
+        assertEquals(List.of("1@" + SLOT.plusMinutes(30), "3@" + SLOT), slotReservationRepository.findAll().stream()
+                .map(reservation -> reservation.getProfessionalId() + "@" + reservation.getSlotStart())
+                .sorted()
+                .toList());
+    }
+}
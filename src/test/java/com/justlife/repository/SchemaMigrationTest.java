@@ -0,0 +1,168 @@
+package com.justlife.repository;
+
+import com.justlife.model.Booking;
+import com.justlife.model.BookingDetail;
+import com.justlife.model.CleaningProfessional;
+import com.justlife.model.Vehicle;
+import com.justlife.model.WorkingShift;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Builds the schema from the Flyway migrations instead of the entities, and lets Hibernate validate the entities
+ * against it.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:schema-migration;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private CleaningProfessionalRepository professionalRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingDetailRepository bookingDetailRepository;
+
+    @Test
+    void testMigrate_AppliesAllMigrations() {
+        List<String> applied = Arrays.stream(flyway.info().applied()).map(MigrationInfo::getVersion).map(Object::toString).toList();
+
+        assertEquals(List.of("1", "2", "3", "4", "5", "6"), applied);
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void testMigrate_CreatesCoveringIndexes() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES WHERE LOWER(INDEX_NAME) LIKE 'idx_%'", String.class);
+
+        assertTrue(indexes.containsAll(List.of("idx_booking_time_window", "idx_booking_detail_booking",
+                "idx_booking_detail_professional", "idx_booking_detail_start_time", "idx_professional_shift_window", "idx_slot_reservation_booking")), indexes.toString());
+        assertFalse(indexes.contains("idx_booking_start_time"), indexes.toString());
+    }
+
+    @Test
+    void testMigrate_FillsDayOccupancyFromSlotReservations() {
+        Flyway beforeOccupancy = Flyway.configure()
+                .dataSource("jdbc:h2:mem:occupancy-backfill;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "")
+                .target("2")
+                .load();
+        beforeOccupancy.migrate();
+        JdbcTemplate database = new JdbcTemplate(beforeOccupancy.getConfiguration().getDataSource());
+        for (String slot : List.of("2024-07-22 10:00:00", "2024-07-22 10:30:00", "2024-07-22 23:30:00", "2024-07-23 00:00:00")) {
+            database.update("INSERT INTO professional_slot_reservation (professional_id, slot_start, booking_id) VALUES (1, ?, 1)", slot);
+        }
+        database.update("INSERT INTO professional_slot_reservation (professional_id, slot_start, booking_id) VALUES (2, '2024-07-22 00:00:00', 2)");
+
+        Flyway.configure().dataSource(beforeOccupancy.getConfiguration().getDataSource()).load().migrate();
+
+        assertEquals(List.of(0b11L << 20 | 1L << 47, 1L, 1L), database.queryForList(
+                "SELECT bitmap FROM professional_day_occupancy ORDER BY professional_id, slot_day", Long.class));
+    }
+
+    @Test
+    void testMigrate_ReservesSlotsOfEarlierBookings() {
+        Flyway beforeBackfill = Flyway.configure()
+                .dataSource("jdbc:h2:mem:reservation-backfill;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "")
+                .target("3")
+                .load();
+        beforeBackfill.migrate();
+        JdbcTemplate database = new JdbcTemplate(beforeBackfill.getConfiguration().getDataSource());
+        database.update("INSERT INTO vehicle (id, name) VALUES (1, 'Vehicle 1')");
+        for (int professional = 1; professional <= 3; professional++) {
+            database.update("INSERT INTO cleaning_professional (id, name, available, working_on_fridays, vehicle_id) VALUES (?, 'Pro', TRUE, FALSE, 1)",
+                    professional);
+        }
+        // Exactly one break apart, but both touch the 10:00 slot
+        insertBooking(database, 1, "2024-07-22 07:40:00", "2024-07-22 09:40:00", 1);
+        insertBooking(database, 2, "2024-07-22 10:10:00", "2024-07-22 12:10:00", 1);
+        insertBooking(database, 3, "2024-07-22 22:00:00", "2024-07-23 00:00:00", 2);
+        // Made after reservations existed, already reserved
+        insertBooking(database, 4, "2024-07-22 10:00:00", "2024-07-22 12:00:00", 3);
+        database.update("INSERT INTO professional_slot_reservation (professional_id, slot_start, booking_id) VALUES (3, '2024-07-22 10:00:00', 4)");
+
+        Flyway.configure().dataSource(beforeBackfill.getConfiguration().getDataSource()).load().migrate();
+
+        assertEquals(List.of("07:30", "08:00", "08:30", "09:00", "09:30", "10:00"), reservedSlots(database, 1));
+        assertEquals(List.of("10:30", "11:00", "11:30", "12:00", "12:30"), reservedSlots(database, 2));
+        assertEquals(List.of("22:00", "22:30", "23:00", "23:30", "00:00"), reservedSlots(database, 3));
+        assertEquals(List.of("10:00"), reservedSlots(database, 4));
+        // And the day occupancy of their professionals
+        assertEquals(0b11111111111L << 15, database.queryForObject(
+                "SELECT bitmap FROM professional_day_occupancy WHERE professional_id = 1 AND slot_day = '2024-07-22'", Long.class));
+        // Their details also get the start time of their bookings
+        assertEquals(LocalDateTime.of(2024, 7, 22, 10, 10),
+                database.queryForObject("SELECT start_time FROM booking_detail WHERE id = 2", LocalDateTime.class));
+    }
+
+    private static void insertBooking(JdbcTemplate database, long id, String startTime, String endTime, long professionalId) {
+        database.update("INSERT INTO booking (id, start_time, end_time, duration, professionals_required) VALUES (?, ?, ?, 2, 1)",
+                id, startTime, endTime);
+        database.update("INSERT INTO booking_detail (id, booking_id, professional_id) VALUES (?, ?, ?)", id, id, professionalId);
+    }
+
+    private static List<String> reservedSlots(JdbcTemplate database, long bookingId) {
+        return database.queryForList("SELECT slot_start FROM professional_slot_reservation WHERE booking_id = ? ORDER BY slot_start",
+                LocalDateTime.class, bookingId).stream().map(slot -> slot.toLocalTime().toString()).toList();
+    }
+
+    @Test
+    void testMigratedSchema_StoresBookings() {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setName("Vehicle 1");
+        vehicleRepository.save(vehicle);
+
+        CleaningProfessional professional = new CleaningProfessional();
+        professional.setName("John Doe");
+        professional.setVehicle(vehicle);
+        professional.getShifts().add(new WorkingShift(DayOfWeek.MONDAY, 8 * 60, 16 * 60));
+        professionalRepository.save(professional);
+
+        Booking booking = new Booking();
+        booking.setStartTime(LocalDateTime.of(2024, 7, 22, 10, 0));
+        booking.setEndTime(LocalDateTime.of(2024, 7, 22, 12, 0));
+        booking.setDuration(2);
+        booking.setProfessionalsRequired(1);
+        bookingRepository.save(booking);
+
+        BookingDetail detail = new BookingDetail();
+        detail.setBooking(booking);
+        detail.setCleaningProfessional(professional);
+        detail.setStartTime(booking.getStartTime());
+        bookingDetailRepository.saveAndFlush(detail);
+
+        List<BookingDetailRepository.ScheduledBooking> scheduled = bookingDetailRepository.findAllScheduledBookings();
+
+        assertEquals(1, scheduled.size());
+        assertEquals(professional.getId(), scheduled.get(0).getProfessionalId());
+        assertEquals(booking.getId(), scheduled.get(0).getBookingId());
+    }
+}
@@ -0,0 +1,115 @@
+package com.justlife.service;
+
+import com.justlife.model.CleaningProfessional;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AvailabilityCacheTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 7, 22);
+    private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+
+    private MeterRegistry meterRegistry;
+    private AvailabilityCache availabilityCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        availabilityCache = new AvailabilityCache(2, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testGet_LoadsOnceThenHits() {
+        availabilityCache.get(key(MONDAY, 10), this::load);
+        availabilityCache.get(key(MONDAY, 10), this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, count("cache.gets", "hit"));
+        assertEquals(1, count("cache.gets", "miss"));
+    }
+
+    @Test
+    void testGet_EvictsLeastRecentlyUsed() {
+        availabilityCache.get(key(MONDAY, 10), this::load);
+        availabilityCache.get(key(MONDAY, 12), this::load);
+        availabilityCache.get(key(MONDAY, 10), this::load);
+        availabilityCache.get(key(MONDAY, 14), this::load);
+
+        assertEquals(2, availabilityCache.size());
+        assertEquals(1, meterRegistry.get("cache.evictions").functionCounter().count());
+        availabilityCache.get(key(MONDAY, 10), this::load);
+        assertEquals(3, loads.get());
+        availabilityCache.get(key(MONDAY, 12), this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void testInvalidate_OnlyDropsAffectedDates() {
+        availabilityCache.get(key(MONDAY, 10), this::load);
+        availabilityCache.get(key(TUESDAY, 10), this::load);
+
+        availabilityCache.invalidate(TUESDAY.atTime(9, 30), TUESDAY.atTime(12, 30));
+
+        assertEquals(1, availabilityCache.size());
+        assertEquals(1, meterRegistry.get("cache.invalidations").functionCounter().count());
+        availabilityCache.get(key(MONDAY, 10), this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidate_RangeAcrossMidnight() {
+        availabilityCache.get(key(MONDAY, 10), this::load);
+        availabilityCache.get(key(TUESDAY, 10), this::load);
+
+        availabilityCache.invalidate(LocalDateTime.of(2024, 7, 22, 21, 30), LocalDateTime.of(2024, 7, 23, 0, 30));
+
+        assertEquals(0, availabilityCache.size());
+    }
+
+    @Test
+    void testGet_DoesNotCacheResultLoadedDuringInvalidation() {
+        availabilityCache.get(key(MONDAY, 10), () -> {
+            // A booking commits while the result is being computed
+            availabilityCache.invalidate(TUESDAY.atTime(9, 30), TUESDAY.atTime(12, 30));
+            return load();
+        });
+
+        assertEquals(0, availabilityCache.size());
+    }
+
+    @Test
+    void testInvalidateAll() {
+        availabilityCache.get(key(MONDAY, 10), this::load);
+        availabilityCache.get(key(TUESDAY, 10), this::load);
+
+        availabilityCache.invalidateAll();
+
+        assertEquals(0, availabilityCache.size());
+        assertEquals(0, meterRegistry.get("cache.size").gauge().value());
+    }
+
+    private List<CleaningProfessional> load() {
+        loads.incrementAndGet();
+        return List.of(new CleaningProfessional());
+    }
+
+    private double count(String name, String result) {
+        return meterRegistry.get(name).tag("result", result).functionCounter().count();
+    }
+
+    private static AvailabilityCache.Key key(LocalDate date, int hour) {
+        return new AvailabilityCache.Key(date, LocalTime.of(hour, 0), 2, 1);
+    }
+}
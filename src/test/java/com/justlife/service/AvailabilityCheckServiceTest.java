@@ -1,24 +1,48 @@
 package com.justlife.service;
 
+import com.justlife.dto.AvailabilityQuery;
+import com.justlife.dto.AvailabilityQueryResult;
+import com.justlife.dto.AvailableProfessional;
+import com.justlife.dto.ProfessionalFreeSlots;
 import com.justlife.model.Booking;
-import com.justlife.model.BookingDetail;
 import com.justlife.model.CleaningProfessional;
+import com.justlife.model.ProfessionalDayOccupancy;
+import com.justlife.model.ProfessionalSlotReservation;
+import com.justlife.model.WorkingShift;
 import com.justlife.repository.BookingDetailRepository;
 import com.justlife.repository.BookingRepository;
 import com.justlife.repository.CleaningProfessionalRepository;
+import com.justlife.repository.ProfessionalDayOccupancyRepository;
+import com.justlife.repository.ProfessionalSlotReservationRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class AvailabilityCheckServiceTest {
@@ -29,6 +53,27 @@ class AvailabilityCheckServiceTest {
     @Mock
     private BookingDetailRepository bookingDetailRepository;
 
+    @Mock
+    private ProfessionalSlotReservationRepository slotReservationRepository;
+
+    @Mock
+    private ProfessionalDayOccupancyRepository dayOccupancyRepository;
+
+    @Spy
+    private ProfessionalScheduleIndex scheduleIndex = new ProfessionalScheduleIndex();
+
+    @Spy
+    private WeeklyShiftCalendar shiftCalendar = new WeeklyShiftCalendar();
+
+    @Spy
+    private AvailabilityCache availabilityCache = new AvailabilityCache(100, new SimpleMeterRegistry());
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private ReadReplicaRouter readReplicaRouter;
+
     @InjectMocks
     private AvailabilityCheckService availabilityCheckService;
 
@@ -58,8 +103,6 @@ class AvailabilityCheckServiceTest {
     @Test
     void testCheckAvailabilityByDate_ProfessionalsAvailable() {
         when(professionalRepository.findAll()).thenReturn(professionals);
-        when(bookingDetailRepository.findByCleaningProfessionalIdAndBookingStartTimeBetween(any(Long.class), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(new ArrayList<>());
 
         LocalDate date = LocalDate.of(2024, 7, 22);
         List<CleaningProfessional> availableProfessionals = availabilityCheckService.checkAvailabilityByDate(date, 2);
@@ -80,8 +123,6 @@ class AvailabilityCheckServiceTest {
     @Test
     void testCheckAvailabilityByDateTime_ProfessionalsAvailable() {
         when(professionalRepository.findAll()).thenReturn(professionals);
-        when(bookingDetailRepository.findByCleaningProfessionalIdAndBookingStartTimeBetween(any(Long.class), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(new ArrayList<>());
 
         LocalDateTime startTime = LocalDateTime.of(2024, 7, 22, 10, 0);
         int duration = 2;
@@ -112,6 +153,23 @@ class AvailabilityCheckServiceTest {
         assertEquals(0, availableProfessionals.size());
     }
 
+    @Test
+    void testCheckAvailability_RecordsCandidatesScanned() {
+        when(professionalRepository.findAll()).thenReturn(professionals);
+
+        // The first professional is enough for a one-professional booking during working hours
+        availabilityCheckService.checkAvailabilityByDate(LocalDate.of(2024, 7, 22), 1);
+        // Nobody works at 7:00, so every professional is checked
+        availabilityCheckService.checkAvailabilityByDateTime(LocalDateTime.of(2024, 7, 22, 7, 0), 2, 1);
+
+        DistributionSummary byDate = meterRegistry.get("justlife.availability.candidates").tag("operation", "by-date").summary();
+        DistributionSummary byDateTime = meterRegistry.get("justlife.availability.candidates").tag("operation", "by-date-time").summary();
+        assertEquals(1, byDate.count());
+        assertEquals(1, byDate.totalAmount());
+        assertEquals(1, byDateTime.count());
+        assertEquals(2, byDateTime.totalAmount());
+    }
+
     @Test
     void testCheckAvailabilityByDateTime_ProfessionalsUnavailableDueToEndWorkingHours() {
         when(professionalRepository.findAll()).thenReturn(professionals);
@@ -137,8 +195,6 @@ class AvailabilityCheckServiceTest {
     @Test
     void testCheckAvailabilityByDateTime_ProfessionalAvailableWithSpecificDuration() {
         when(professionalRepository.findAll()).thenReturn(professionals);
-        when(bookingDetailRepository.findByCleaningProfessionalIdAndBookingStartTimeBetween(any(Long.class), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(new ArrayList<>());
 
         LocalDateTime startTime = LocalDateTime.of(2024, 7, 22, 10, 0);
         int duration = 4;
@@ -151,19 +207,8 @@ class AvailabilityCheckServiceTest {
     void testCheckAvailabilityByDateTime_ProfessionalUnavailableWithSpecificDuration() {
         when(professionalRepository.findAll()).thenReturn(professionals);
 
-        Booking booking = new Booking();
-        booking.setStartTime(LocalDateTime.of(2024, 7, 22, 8, 0));
-        booking.setEndTime(LocalDateTime.of(2024, 7, 22, 12, 0)); // Overlaps with the requested duration
-
-        BookingDetail bookingDetail = new BookingDetail();
-        bookingDetail.setBooking(booking);
-        bookingDetail.setCleaningProfessional(professionals.get(0));
-
-        List<BookingDetail> bookingDetails = new ArrayList<>();
-        bookingDetails.add(bookingDetail);
-
-        when(bookingDetailRepository.findByCleaningProfessionalIdAndBookingStartTimeBetween(any(Long.class), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(bookingDetails);
+        // Both professionals are booked from 08:00 to 12:00, which overlaps with the requested duration
+        scheduleIndex.record(1L, LocalDateTime.of(2024, 7, 22, 8, 0), LocalDateTime.of(2024, 7, 22, 12, 0), List.of(1L, 2L));
 
         LocalDateTime startTime = LocalDateTime.of(2024, 7, 22, 10, 0);
         int duration = 4;
@@ -171,4 +216,311 @@ class AvailabilityCheckServiceTest {
 
         assertEquals(0, availableProfessionals.size());
     }
+
+    @Test
+    void testCheckAvailabilityByDateTime_QueryDatabase() {
+        ReflectionTestUtils.setField(availabilityCheckService, "queryDatabase", true);
+        // Slots 20 to 24, 10:00 to the end of the break at 12:30
+        when(professionalRepository.findAvailable(DayOfWeek.MONDAY, false, 600, 720, "10:00", "12:00",
+                LocalDate.of(2024, 7, 22), 0b11111L << 20, LocalDate.of(2024, 7, 23), 0L, Limit.of(2)))
+                .thenReturn(professionals);
+
+        LocalDateTime startTime = LocalDateTime.of(2024, 7, 22, 10, 0);
+        List<CleaningProfessional> availableProfessionals = availabilityCheckService.checkAvailabilityByDateTime(startTime, 2, 2);
+
+        assertEquals(2, availableProfessionals.size());
+        verify(professionalRepository, never()).findAll();
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_Shifts() {
+        professionals.get(0).getShifts().add(new WorkingShift(DayOfWeek.FRIDAY, 14 * 60, 20 * 60));
+        when(professionalRepository.findAll()).thenReturn(professionals);
+
+        assertEquals(1, availabilityCheckService.checkAvailabilityByDateTime(LocalDateTime.of(2024, 7, 26, 14, 0), 4, 2).size());
+        assertEquals(0, availabilityCheckService.checkAvailabilityByDateTime(LocalDateTime.of(2024, 7, 26, 17, 0), 4, 2).size());
+        assertEquals(1, availabilityCheckService.checkAvailabilityByDateTime(LocalDateTime.of(2024, 7, 22, 10, 0), 2, 2).size());
+    }
+
+    @Test
+    void testFindFreeSlots() {
+        when(professionalRepository.findAll()).thenReturn(professionals);
+        scheduleIndex.record(1L, LocalDateTime.of(2024, 7, 22, 10, 0), LocalDateTime.of(2024, 7, 22, 12, 0), List.of(1L));
+
+        List<ProfessionalFreeSlots> freeSlots = availabilityCheckService.findFreeSlots(LocalDate.of(2024, 7, 22));
+
+        assertEquals(2, freeSlots.size());
+        // 08:00-09:30 is too short for a booking, the next one can start after the break at 12:30
+        assertEquals(halfHoursBetween(LocalTime.of(12, 30), LocalTime.of(20, 0)), freeSlots.get(0).getStartTimes().get(2));
+        assertEquals(halfHoursBetween(LocalTime.of(12, 30), LocalTime.of(18, 0)), freeSlots.get(0).getStartTimes().get(4));
+        assertEquals(halfHoursBetween(LocalTime.of(8, 0), LocalTime.of(20, 0)), freeSlots.get(1).getStartTimes().get(2));
+    }
+
+    @Test
+    void testFindFreeSlots_AgreesWithAvailabilityCheck() {
+        when(professionalRepository.findAll()).thenReturn(professionals);
+        professionals.get(1).getShifts().add(new WorkingShift(DayOfWeek.MONDAY, 9 * 60 + 15, 19 * 60));
+        scheduleIndex.record(1L, LocalDateTime.of(2024, 7, 22, 9, 45), LocalDateTime.of(2024, 7, 22, 11, 45), List.of(1L, 2L));
+        scheduleIndex.record(2L, LocalDateTime.of(2024, 7, 22, 15, 0), LocalDateTime.of(2024, 7, 22, 19, 0), List.of(1L));
+
+        LocalDate date = LocalDate.of(2024, 7, 22);
+        List<ProfessionalFreeSlots> freeSlots = availabilityCheckService.findFreeSlots(date);
+
+        for (int duration : new int[]{2, 4}) {
+            for (LocalTime time : halfHoursBetween(LocalTime.MIDNIGHT, LocalTime.of(23, 30))) {
+                List<Long> available = availabilityCheckService.findAllAvailable(date.atTime(time), duration).stream()
+                        .map(CleaningProfessional::getId)
+                        .toList();
+                List<Long> listed = freeSlots.stream()
+                        .filter(slots -> slots.getStartTimes().get(duration).contains(time))
+                        .map(ProfessionalFreeSlots::getProfessionalId)
+                        .toList();
+                assertEquals(available, listed, duration + "h booking at " + time);
+            }
+        }
+    }
+
+    @Test
+    void testFindFreeSlots_QueryDatabase() {
+        ReflectionTestUtils.setField(availabilityCheckService, "queryDatabase", true);
+        when(professionalRepository.findAll()).thenReturn(professionals);
+        // A booking of professional 2 from 8:00 to 20:00 leaves 20:30 to 22:00, too short for a booking
+        LocalDate date = LocalDate.of(2024, 7, 22);
+        long reserved = AvailabilityCheckService.reservedSlotsByDay(date.atTime(8, 0), date.atTime(20, 0)).get(date);
+        when(dayOccupancyRepository.findByDayBetween(date, date.plusDays(1)))
+                .thenReturn(List.of(new ProfessionalDayOccupancy(2L, date, reserved)));
+
+        List<ProfessionalFreeSlots> freeSlots = availabilityCheckService.findFreeSlots(date);
+
+        assertEquals(List.of(1L), freeSlots.stream().map(ProfessionalFreeSlots::getProfessionalId).toList());
+    }
+
+    @Test
+    void testFindFreeSlots_QueryDatabaseAgreesWithScheduleIndex() {
+        when(professionalRepository.findAll()).thenReturn(professionals);
+        professionals.forEach(professional -> professional.getShifts().add(new WorkingShift(DayOfWeek.MONDAY, 0, 24 * 60)));
+        LocalDate date = LocalDate.of(2024, 7, 22);
+        List<LocalDateTime[]> bookings = List.of(
+                new LocalDateTime[]{date.minusDays(1).atTime(23, 0), date.atTime(1, 0)},
+                new LocalDateTime[]{date.atTime(9, 45), date.atTime(11, 45)},
+                new LocalDateTime[]{date.atTime(14, 0), date.atTime(18, 0)},
+                new LocalDateTime[]{date.plusDays(1).atStartOfDay(), date.plusDays(1).atTime(2, 0)});
+
+        List<ProfessionalDayOccupancy> occupancy = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            LocalDateTime[] booking = bookings.get(i);
+            scheduleIndex.record((long) i, booking[0], booking[1], List.of(1L));
+            AvailabilityCheckService.reservedSlotsByDay(booking[0], booking[1])
+                    .forEach((day, slots) -> occupancy.add(new ProfessionalDayOccupancy(1L, day, slots)));
+        }
+        when(dayOccupancyRepository.findByDayBetween(date, date.plusDays(1)))
+                .thenReturn(occupancy.stream().filter(day -> !day.getDay().isBefore(date)).toList());
+
+        List<ProfessionalFreeSlots> fromIndex = availabilityCheckService.findFreeSlots(date);
+        ReflectionTestUtils.setField(availabilityCheckService, "queryDatabase", true);
+        List<ProfessionalFreeSlots> fromOccupancy = availabilityCheckService.findFreeSlots(date);
+
+        assertEquals(fromIndex, fromOccupancy);
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_CachedUntilBookingOnSameDate() {
+        when(professionalRepository.findAll()).thenReturn(professionals);
+        LocalDateTime startTime = LocalDateTime.of(2024, 7, 22, 10, 0);
+
+        assertEquals(2, availabilityCheckService.checkAvailabilityByDateTime(startTime, 2, 2).size());
+        assertEquals(2, availabilityCheckService.checkAvailabilityByDateTime(startTime, 2, 2).size());
+        verify(professionalRepository, times(1)).findAll();
+
+        Booking booking = new Booking();
+        booking.setId(7L);
+        booking.setStartTime(LocalDateTime.of(2024, 7, 22, 12, 0));
+        booking.setEndTime(LocalDateTime.of(2024, 7, 22, 14, 0));
+        availabilityCheckService.updateProfessionalsAvailability(List.of(professionals.get(0)), booking);
+
+        assertEquals(1, availabilityCheckService.checkAvailabilityByDateTime(startTime, 2, 2).size());
+        verify(professionalRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testFindAllAvailable_BypassesCache() {
+        when(professionalRepository.findAll()).thenReturn(professionals);
+        LocalDateTime startTime = LocalDateTime.of(2024, 7, 22, 10, 0);
+
+        availabilityCheckService.checkAvailabilityByDateTime(startTime, 2, Integer.MAX_VALUE);
+        availabilityCheckService.findAllAvailable(startTime, 2);
+
+        verify(professionalRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testUpdateProfessionalsAvailability_ReservesSlotsIncludingBreak() {
+        Booking booking = new Booking();
+        booking.setId(7L);
+        booking.setStartTime(LocalDateTime.of(2024, 7, 22, 10, 0));
+        booking.setEndTime(LocalDateTime.of(2024, 7, 22, 12, 0));
+
+        availabilityCheckService.updateProfessionalsAvailability(List.of(professionals.get(0)), booking);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProfessionalSlotReservation>> reservations = ArgumentCaptor.forClass(List.class);
+        verify(slotReservationRepository).saveAll(reservations.capture());
+        verify(slotReservationRepository).flush();
+        assertEquals(List.of(10, 10, 11, 11, 12), reservations.getValue().stream().map(r -> r.getSlotStart().getHour()).toList());
+        assertEquals(List.of(0, 30, 0, 30, 0), reservations.getValue().stream().map(r -> r.getSlotStart().getMinute()).toList());
+        assertFalse(scheduleIndex.isFree(1L, LocalDateTime.of(2024, 7, 22, 12, 0), LocalDateTime.of(2024, 7, 22, 14, 0)));
+
+        verify(dayOccupancyRepository).occupy(1L, LocalDate.of(2024, 7, 22), 0b11111L << 20);
+    }
+
+    @Test
+    void testUpdateProfessionalsAvailability_UpsertsOccupancyOfEachProfessional() {
+        LocalDate day = LocalDate.of(2024, 7, 22);
+        Booking booking = new Booking();
+        booking.setId(7L);
+        booking.setStartTime(day.atTime(10, 0));
+        booking.setEndTime(day.atTime(12, 0));
+        availabilityCheckService.updateProfessionalsAvailability(professionals, booking);
+
+        verify(dayOccupancyRepository).occupy(1L, day, 0b11111L << 20);
+        verify(dayOccupancyRepository).occupy(2L, day, 0b11111L << 20);
+        verify(dayOccupancyRepository, never()).saveAllAndFlush(any());
+    }
+
+    @Test
+    void testCheckAvailability_AnswersAllQueriesFromOneSnapshot() {
+        ReflectionTestUtils.setField(availabilityCheckService, "queryDatabase", true);
+        LocalDate day = LocalDate.of(2024, 7, 22);
+        when(professionalRepository.findAll()).thenReturn(professionals);
+        // Professional 1 is booked from 10:00 to 12:00
+        when(dayOccupancyRepository.findByDayIn(Set.of(day, day.plusDays(1))))
+                .thenReturn(List.of(new ProfessionalDayOccupancy(1L, day, 0b11111L << 20)));
+
+        List<AvailabilityQueryResult> results = availabilityCheckService.checkAvailability(List.of(
+                new AvailabilityQuery(day, day.atTime(11, 0), 2, 2),
+                new AvailabilityQuery(day, day.atTime(12, 30), 2, 2),
+                new AvailabilityQuery(day, null, null, null),
+                new AvailabilityQuery(day.plusDays(1), null, null, 2),
+                new AvailabilityQuery(day, day.atTime(12, 30), 3, 1)));
+
+        assertEquals(List.of(List.of(2L), List.of(1L, 2L), List.of(2L), List.of(1L, 2L)), results.subList(0, 4).stream()
+                .map(result -> result.getProfessionals().stream().map(AvailableProfessional::getId).toList())
+                .toList());
+        assertEquals(4, results.get(4).getIndex());
+        assertEquals("Invalid booking duration. Must be 2 or 4 hours.", results.get(4).getError());
+        verify(professionalRepository).findAll();
+        verify(dayOccupancyRepository).findByDayIn(Set.of(day, day.plusDays(1)));
+    }
+
+    @Test
+    void testCheckAvailability_AnswersFromScheduleIndexLikeSingleChecks() {
+        LocalDate day = LocalDate.of(2024, 7, 22);
+        when(professionalRepository.findAll()).thenReturn(professionals);
+        // Professional 1 is booked from 10:00 to 12:00
+        scheduleIndex.record(7L, day.atTime(10, 0), day.atTime(12, 0), List.of(1L));
+
+        List<AvailabilityQueryResult> results = availabilityCheckService.checkAvailability(List.of(
+                new AvailabilityQuery(day, day.atTime(11, 0), 2, null),
+                new AvailabilityQuery(day, day.atTime(12, 30), 2, 2),
+                new AvailabilityQuery(day, null, 2, 2),
+                new AvailabilityQuery(day.plusDays(1), day.plusDays(1).atTime(10, 0), null, 2)));
+
+        // A start time and duration without a number of professionals is checked by date and time, for one
+        assertEquals(List.of(List.of(2L), List.of(1L, 2L), List.of(2L), List.of(1L, 2L)), results.stream()
+                .map(result -> result.getProfessionals().stream().map(AvailableProfessional::getId).toList())
+                .toList());
+        assertEquals(availabilityCheckService.checkAvailabilityByDateTime(day.atTime(11, 0), 2, 1).stream().map(CleaningProfessional::getId).toList(),
+                results.get(0).getProfessionals().stream().map(AvailableProfessional::getId).toList());
+        assertEquals(availabilityCheckService.checkAvailabilityByDate(day, 2).stream().map(CleaningProfessional::getId).toList(),
+                results.get(2).getProfessionals().stream().map(AvailableProfessional::getId).toList());
+        verify(dayOccupancyRepository, never()).findByDayIn(any());
+    }
+
+    @Test
+    void testFilterAvailable_IgnoresSlotsOfRescheduledBooking() {
+        LocalDate day = LocalDate.of(2024, 7, 22);
+        Booking booking = newBooking(7L, day.atTime(10, 0), day.atTime(12, 0));
+        scheduleIndex.record(7L, booking.getStartTime(), booking.getEndTime(), List.of(1L));
+        scheduleIndex.record(8L, booking.getStartTime(), booking.getEndTime(), List.of(2L));
+        AvailabilityCheckService.Assignment current = new AvailabilityCheckService.Assignment(booking, professionals.subList(0, 1));
+
+        assertEquals(professionals.subList(0, 1), availabilityCheckService.filterAvailable(professionals, day.atTime(11, 0), 2, current));
+        assertEquals(List.of(), availabilityCheckService.filterAvailable(professionals, day.atTime(11, 0), 2));
+    }
+
+    @Test
+    void testRescheduleProfessionals_WritesOnlyChangedRows() {
+        LocalDate day = LocalDate.of(2024, 7, 22);
+        CleaningProfessional professional3 = new CleaningProfessional();
+        professional3.setId(3L);
+
+        // Professional 1 stays and moves one hour later, professional 2 leaves and professional 3 joins
+        availabilityCheckService.rescheduleProfessionals(
+                new AvailabilityCheckService.Assignment(newBooking(7L, day.atTime(10, 0), day.atTime(12, 0)), professionals),
+                new AvailabilityCheckService.Assignment(newBooking(7L, day.atTime(11, 0), day.atTime(13, 0)),
+                        List.of(professionals.get(0), professional3)));
+
+        verify(bookingDetailRepository).deleteByBookingIdAndProfessionalIds(7L, List.of(2L));
+        verify(bookingDetailRepository, never()).deleteByBookingId(7L);
+        verify(bookingDetailRepository).updateStartTime(7L, day.atTime(11, 0));
+        verify(slotReservationRepository).deleteAllExcept(7L, List.of(1L), List.of(day.atTime(11, 0), day.atTime(11, 30), day.atTime(12, 0)));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProfessionalSlotReservation>> reservations = ArgumentCaptor.forClass(List.class);
+        verify(slotReservationRepository).saveAll(reservations.capture());
+        assertEquals(List.of("1@12:30", "1@13:00", "3@11:00", "3@11:30", "3@12:00", "3@12:30", "3@13:00"), reservations.getValue().stream()
+                .map(reservation -> reservation.getProfessionalId() + "@" + reservation.getSlotStart().toLocalTime())
+                .toList());
+
+        verify(dayOccupancyRepository).vacate(2L, day, 0b11111L << 20);
+        verify(dayOccupancyRepository).vacate(1L, day, 0b11L << 20);
+        verify(dayOccupancyRepository).occupy(1L, day, 0b11L << 25);
+        verify(dayOccupancyRepository).occupy(3L, day, 0b11111L << 22);
+    }
+
+    @Test
+    void testRescheduleProfessionals_SameTeamAndTimeWritesNothing() {
+        LocalDate day = LocalDate.of(2024, 7, 22);
+        Booking booking = newBooking(7L, day.atTime(10, 0), day.atTime(12, 0));
+
+        availabilityCheckService.rescheduleProfessionals(new AvailabilityCheckService.Assignment(booking, professionals),
+                new AvailabilityCheckService.Assignment(booking, professionals));
+
+        verify(bookingDetailRepository, never()).deleteByBookingId(7L);
+        verify(slotReservationRepository, never()).deleteByBookingId(7L);
+        verify(bookingDetailRepository, never()).updateStartTime(any(), any());
+        verify(bookingDetailRepository).saveAll(List.of());
+        verify(slotReservationRepository).saveAll(List.of());
+        verify(dayOccupancyRepository, never()).vacate(any(), any(), anyLong());
+        verify(dayOccupancyRepository, never()).occupy(any(), any(), anyLong());
+    }
+
+    @Test
+    void testReservedSlotsByDay() {
+        assertEquals(Map.of(LocalDate.of(2024, 7, 22), 0b11111L << 20),
+                AvailabilityCheckService.reservedSlotsByDay(LocalDateTime.of(2024, 7, 22, 10, 0), LocalDateTime.of(2024, 7, 22, 12, 0)));
+        assertEquals(Map.of(LocalDate.of(2024, 7, 22), 0b1111L << 44, LocalDate.of(2024, 7, 23), 1L),
+                AvailabilityCheckService.reservedSlotsByDay(LocalDateTime.of(2024, 7, 22, 22, 0), LocalDateTime.of(2024, 7, 23, 0, 0)));
+        // The break ends exactly at midnight
+        assertEquals(Map.of(LocalDate.of(2024, 7, 22), 0b11111L << 43),
+                AvailabilityCheckService.reservedSlotsByDay(LocalDateTime.of(2024, 7, 22, 21, 30), LocalDateTime.of(2024, 7, 22, 23, 30)));
+    }
+
+    private static Booking newBooking(Long id, LocalDateTime startTime, LocalDateTime endTime) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setStartTime(startTime);
+        booking.setEndTime(endTime);
+        return booking;
+    }
+
+    private static List<LocalTime> halfHoursBetween(LocalTime first, LocalTime last) {
+        List<LocalTime> times = new ArrayList<>();
+        for (LocalTime time = first; !time.isAfter(last); time = time.plusMinutes(30)) {
+            times.add(time);
+            if (time.equals(LocalTime.of(23, 30))) {
+                break;
+            }
+        }
+        return times;
+    }
 }
@@ -0,0 +1,92 @@
+package com.justlife.service;
+
+import com.justlife.model.Booking;
+import com.justlife.model.CleaningProfessional;
+import com.justlife.model.Vehicle;
+import com.justlife.repository.CleaningProfessionalRepository;
+import com.justlife.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Journals the bookings made through the service and rebuilds the schedule index from the journal alone.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking-journal;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class BookingJournalReplayTest {
+
+    @TempDir
+    private static Path directory;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingJournal bookingJournal;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private CleaningProfessionalRepository professionalRepository;
+
+    @DynamicPropertySource
+    static void journalPath(DynamicPropertyRegistry registry) {
+        registry.add("justlife.booking.journal.path", () -> directory.resolve("bookings.journal").toString());
+    }
+
+    @Test
+    void testReplay_RebuildsScheduleOfCreatedAndUpdatedBookings() {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setName("Vehicle 1");
+        vehicleRepository.save(vehicle);
+        for (int p = 1; p <= 2; p++) {
+            CleaningProfessional professional = new CleaningProfessional();
+            professional.setName("Professional " + p);
+            professional.setVehicle(vehicle);
+            professionalRepository.save(professional);
+        }
+        LocalDate day = LocalDate.of(2030, 1, 7);
+
+        Booking moved = bookingService.createBooking(newBooking(day.atTime(10, 0), 2));
+        bookingService.createBooking(newBooking(day.atTime(16, 0), 1));
+        bookingService.updateBooking(moved.getId(), newBooking(day.atTime(13, 0), 1));
+
+        // The latest record of each booking, the update in place of the creation of the moved booking
+        List<BookingJournal.Entry> entries = new ArrayList<>();
+        assertEquals(2, bookingJournal.replay(entries::add));
+        assertEquals(List.of(BookingJournal.Type.CREATE, BookingJournal.Type.UPDATE),
+                entries.stream().map(BookingJournal.Entry::type).toList());
+        assertEquals(moved.getId(), entries.get(1).bookingId());
+
+        ProfessionalScheduleIndex rebuilt = new ProfessionalScheduleIndex();
+        bookingJournal.replay(entry -> rebuilt.record(entry.bookingId(), entry.startTime(), entry.endTime(), entry.professionalIds()));
+        Long movedProfessional = entries.get(1).professionalIds().get(0);
+        Long otherProfessional = professionalRepository.findAll().stream().map(CleaningProfessional::getId)
+                .filter(id -> !id.equals(movedProfessional)).findFirst().orElseThrow();
+        assertTrue(rebuilt.isFree(movedProfessional, day.atTime(10, 0), day.atTime(12, 0)));
+        assertFalse(rebuilt.isFree(movedProfessional, day.atTime(13, 0), day.atTime(15, 0)));
+        assertTrue(rebuilt.isFree(otherProfessional, day.atTime(10, 0), day.atTime(12, 0)));
+    }
+
+    private static Booking newBooking(LocalDateTime startTime, int professionalsRequired) {
+        Booking booking = new Booking();
+        booking.setStartTime(startTime);
+        booking.setDuration(2);
+        booking.setProfessionalsRequired(professionalsRequired);
+        return booking;
+    }
+}
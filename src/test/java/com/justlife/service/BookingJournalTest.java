@@ -0,0 +1,178 @@
+package com.justlife.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingJournalTest {
+
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+    @TempDir
+    private Path directory;
+
+    private final List<BookingJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(BookingJournal::close);
+    }
+
+    @Test
+    void testReplay_AfterReopening() {
+        BookingJournal journal = open();
+        journal.append(entry(1, BookingJournal.Type.CREATE, 1L, START, 2, 1L, 2L));
+        journal.append(entry(2, BookingJournal.Type.CREATE, 2L, START.plusHours(4), 4, 3L));
+        journal.close();
+
+        List<BookingJournal.Entry> replayed = replay(open());
+
+        assertEquals(List.of(entry(1, BookingJournal.Type.CREATE, 1L, START, 2, 1L, 2L),
+                entry(2, BookingJournal.Type.CREATE, 2L, START.plusHours(4), 4, 3L)), replayed);
+    }
+
+    @Test
+    void testReplay_KeepsHighestSequenceOfBooking() {
+        BookingJournal journal = open();
+        journal.append(entry(1, BookingJournal.Type.CREATE, 1L, START, 2, 1L));
+        // Two updates of the booking that committed in order but were appended the other way round
+        journal.append(entry(3, BookingJournal.Type.UPDATE, 1L, START.plusHours(6), 2, 3L));
+        journal.append(entry(2, BookingJournal.Type.UPDATE, 1L, START.plusHours(3), 2, 2L));
+        journal.close();
+
+        BookingJournal reopened = open();
+        assertEquals(List.of(entry(3, BookingJournal.Type.UPDATE, 1L, START.plusHours(6), 2, 3L)), replay(reopened));
+
+        // Sequence numbers continue after the highest in the file
+        reopened.appendAfterCommit(BookingJournal.Type.UPDATE, 1L, START, START.plusHours(2), List.of(4L));
+        assertEquals(List.of(entry(4, BookingJournal.Type.UPDATE, 1L, START, 2, 4L)), replay(reopened));
+    }
+
+    @Test
+    void testReplay_StopsAtTornRecord() throws Exception {
+        BookingJournal journal = open();
+        journal.append(entry(1, BookingJournal.Type.CREATE, 1L, START, 2, 1L));
+        journal.append(entry(2, BookingJournal.Type.CREATE, 2L, START, 2, 2L));
+        journal.close();
+        // A crash in the middle of the second record: its last byte never made it
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("bookings.journal").toFile(), "rw")) {
+            long secondRecordEnd = 8 + 2 * 42L;
+            file.seek(secondRecordEnd - 1);
+            int last = file.read();
+            file.seek(secondRecordEnd - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        BookingJournal reopened = open();
+        assertEquals(List.of(1L), replay(reopened).stream().map(BookingJournal.Entry::bookingId).toList());
+
+        reopened.append(entry(3, BookingJournal.Type.CREATE, 3L, START, 2, 3L));
+        reopened.close();
+        assertEquals(List.of(1L, 3L), replay(open()).stream().map(BookingJournal.Entry::bookingId).toList());
+    }
+
+    @Test
+    void testAppend_GrowsPastMapping() {
+        BookingJournal journal = open();
+        // Records of one professional take 42 bytes, more than fit in the first 16 MB mapping
+        int count = (16 << 20) / 42 + 1000;
+        for (long id = 1; id <= count; id++) {
+            journal.append(entry(id, BookingJournal.Type.CREATE, id, START, 2, id));
+        }
+        journal.close();
+
+        assertEquals(count, open().replay(entry -> { }));
+    }
+
+    @Test
+    void testCompact_KeepsLastRecordOfRecentBookings() {
+        BookingJournal journal = open();
+        journal.append(entry(1, BookingJournal.Type.CREATE, 1L, START, 2, 1L));
+        journal.append(entry(2, BookingJournal.Type.CREATE, 2L, START.minusDays(60), 2, 2L));
+        journal.append(entry(3, BookingJournal.Type.UPDATE, 1L, START.plusDays(1), 4, 1L, 3L));
+
+        assertEquals(1, journal.compact());
+        journal.append(entry(4, BookingJournal.Type.CREATE, 4L, START, 2, 4L));
+        journal.close();
+
+        assertEquals(List.of(entry(3, BookingJournal.Type.UPDATE, 1L, START.plusDays(1), 4, 1L, 3L),
+                entry(4, BookingJournal.Type.CREATE, 4L, START, 2, 4L)), replay(open()));
+    }
+
+    @Test
+    void testAppendAfterCommit_SkipsRolledBackBookings() {
+        BookingJournal journal = open();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            journal.appendAfterCommit(BookingJournal.Type.CREATE, 1L, START, START.plusHours(2), List.of(1L));
+            assertFalse(journal.hasEntries());
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertFalse(journal.hasEntries());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            journal.appendAfterCommit(BookingJournal.Type.CREATE, 2L, START, START.plusHours(2), List.of(1L));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of(2L), replay(journal).stream().map(BookingJournal.Entry::bookingId).toList());
+    }
+
+    @Test
+    void testOpen_RejectsOtherFiles() throws Exception {
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("bookings.journal").toFile(), "rw")) {
+            file.writeBytes("not a journal");
+        }
+
+        assertThrows(IllegalStateException.class, this::open);
+    }
+
+    @Test
+    void testDisabled() {
+        BookingJournal journal = new BookingJournal("", Duration.ofDays(30), Duration.ZERO);
+        journal.open();
+        journal.appendAfterCommit(BookingJournal.Type.CREATE, 1L, START, START.plusHours(2), List.of(1L));
+
+        assertFalse(journal.isEnabled());
+        assertFalse(journal.hasEntries());
+        assertEquals(0, journal.replay(entry -> { }));
+    }
+
+    private BookingJournal open() {
+        BookingJournal journal = new BookingJournal(directory.resolve("bookings.journal").toString(), Duration.ofDays(30), Duration.ZERO);
+        journal.open();
+        opened.add(journal);
+        assertTrue(journal.isEnabled());
+        return journal;
+    }
+
+    private static List<BookingJournal.Entry> replay(BookingJournal journal) {
+        List<BookingJournal.Entry> entries = new ArrayList<>();
+        journal.replay(entries::add);
+        return entries;
+    }
+
+    private static BookingJournal.Entry entry(long sequence, BookingJournal.Type type, Long bookingId, LocalDateTime startTime,
+                                              int hours, Long... professionalIds) {
+        return new BookingJournal.Entry(sequence, type, bookingId, startTime, startTime.plusHours(hours), List.of(professionalIds));
+    }
+}
@@ -0,0 +1,138 @@
+package com.justlife.service;
+
+import com.justlife.model.Booking;
+import com.justlife.model.CleaningProfessional;
+import com.justlife.model.ProfessionalDayOccupancy;
+import com.justlife.model.ProfessionalSlotReservation;
+import com.justlife.repository.CleaningProfessionalRepository;
+import com.justlife.repository.ProfessionalDayOccupancyRepository;
+import com.justlife.repository.ProfessionalSlotReservationRepository;
+import com.justlife.repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reschedules bookings against the database, with availability answered by the occupancy bitmaps.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking-reschedule;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "justlife.availability.query-database=true"
+})
+class BookingRescheduleTest {
+
+    private static final int VEHICLES = 2;
+    private static final int PROFESSIONALS_PER_VEHICLE = 3;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private CleaningProfessionalRepository professionalRepository;
+
+    @Autowired
+    private ProfessionalSlotReservationRepository slotReservationRepository;
+
+    @Autowired
+    private ProfessionalDayOccupancyRepository dayOccupancyRepository;
+
+    @BeforeEach
+    void setUp() {
+        TestFleet.create(vehicleRepository, professionalRepository, VEHICLES, PROFESSIONALS_PER_VEHICLE);
+    }
+
+    @Test
+    void testUpdateBooking_KeepsTeamWhenMovedOverItsOwnSlots() {
+        LocalDate day = LocalDate.of(2030, 1, 7);
+        Booking booking = bookingService.createBooking(newBooking(day.atTime(10, 0), 2, 2));
+        Set<Long> team = team(booking);
+
+        bookingService.updateBooking(booking.getId(), newBooking(day.atTime(11, 0), 2, 2));
+
+        assertEquals(team, team(booking));
+        assertEquals(10, reservations(booking).size());
+        assertTrue(reservations(booking).stream().allMatch(reservation -> !reservation.getSlotStart().isBefore(day.atTime(11, 0))));
+        for (Long professionalId : team) {
+            assertEquals(0b11111L << 22, bitmap(professionalId, day));
+        }
+    }
+
+    @Test
+    void testUpdateBooking_ReleasesProfessionalsNoLongerRequired() {
+        LocalDate day = LocalDate.of(2030, 1, 8);
+        Booking booking = bookingService.createBooking(newBooking(day.atTime(10, 0), 2, 3));
+        Set<Long> team = team(booking);
+
+        bookingService.updateBooking(booking.getId(), newBooking(day.atTime(10, 0), 2, 1));
+
+        Set<Long> rescheduledTeam = team(booking);
+        assertEquals(1, rescheduledTeam.size());
+        assertTrue(team.containsAll(rescheduledTeam));
+        assertEquals(5, reservations(booking).size());
+        for (Long professionalId : team) {
+            assertEquals(rescheduledTeam.contains(professionalId) ? 0b11111L << 20 : 0, bitmap(professionalId, day));
+        }
+    }
+
+    @Test
+    void testUpdateBooking_MovesToAnotherVehicleWhenTeamIsTaken() {
+        LocalDate day = LocalDate.of(2030, 1, 9);
+        Booking booking = bookingService.createBooking(newBooking(day.atTime(10, 0), 2, 3));
+        Set<Long> team = team(booking);
+        Booking later = bookingService.createBooking(newBooking(day.atTime(16, 0), 2, 3));
+        // The first vehicle tried for the later booking is the one of the current team
+        assertEquals(team, team(later));
+
+        bookingService.updateBooking(booking.getId(), newBooking(day.atTime(16, 0), 2, 3));
+
+        Set<Long> rescheduledTeam = team(booking);
+        assertEquals(3, rescheduledTeam.size());
+        assertTrue(rescheduledTeam.stream().noneMatch(team::contains));
+        assertEquals(15, reservations(booking).size());
+        for (Long professionalId : team) {
+            assertEquals(0b11111L << 32, bitmap(professionalId, day));
+        }
+        for (Long professionalId : rescheduledTeam) {
+            assertEquals(0b11111L << 32, bitmap(professionalId, day));
+        }
+    }
+
+    private Set<Long> team(Booking booking) {
+        return professionalRepository.findByBookingId(booking.getId()).stream()
+                .map(CleaningProfessional::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private List<ProfessionalSlotReservation> reservations(Booking booking) {
+        return slotReservationRepository.findAll().stream()
+                .filter(reservation -> reservation.getBookingId().equals(booking.getId()))
+                .toList();
+    }
+
+    private long bitmap(Long professionalId, LocalDate day) {
+        return dayOccupancyRepository.findById(new ProfessionalDayOccupancy.Key(day, professionalId))
+                .map(ProfessionalDayOccupancy::getBitmap)
+                .orElse(0L);
+    }
+
+    private static Booking newBooking(LocalDateTime startTime, int duration, int professionalsRequired) {
+        Booking booking = new Booking();
+        booking.setStartTime(startTime);
+        booking.setDuration(duration);
+        booking.setProfessionalsRequired(professionalsRequired);
+        return booking;
+    }
+}
@@ -0,0 +1,92 @@
+package com.justlife.service;
+
+import com.justlife.model.Booking;
+import com.justlife.model.BookingDetail;
+import com.justlife.repository.BookingDetailRepository;
+import com.justlife.repository.CleaningProfessionalRepository;
+import com.justlife.repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking-concurrency;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class BookingServiceConcurrencyTest {
+
+    private static final int VEHICLES = 3;
+    private static final int PROFESSIONALS_PER_VEHICLE = 4;
+    private static final int REQUESTS = 400;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private CleaningProfessionalRepository professionalRepository;
+
+    @Autowired
+    private BookingDetailRepository bookingDetailRepository;
+
+    @BeforeEach
+    void setUp() {
+        TestFleet.create(vehicleRepository, professionalRepository, VEHICLES, PROFESSIONALS_PER_VEHICLE);
+    }
+
+    @Test
+    void testCreateBooking_NoDoubleBookingUnderContention() throws Exception {
+        Random random = new Random(42);
+        LocalDateTime monday = LocalDateTime.of(2030, 1, 7, 8, 0);
+        List<Booking> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            Booking booking = new Booking();
+            booking.setStartTime(monday.plusMinutes(30L * random.nextInt(20)));
+            booking.setDuration(random.nextBoolean() ? 2 : 4);
+            booking.setProfessionalsRequired(1 + random.nextInt(3));
+            requests.add(booking);
+        }
+
+        int succeeded = TestFleet.createConcurrently(bookingService, requests, THREADS);
+
+        assertTrue(succeeded > 0);
+        assertNoDoubleBooking(succeeded);
+    }
+
+    private void assertNoDoubleBooking(int succeeded) {
+        List<BookingDetail> details = bookingDetailRepository.findAll();
+
+        Map<Long, List<BookingDetail>> detailsByBooking = details.stream()
+                .collect(Collectors.groupingBy(detail -> detail.getBooking().getId()));
+        assertEquals(succeeded, detailsByBooking.size());
+        detailsByBooking.values().forEach(team -> {
+            assertEquals(team.get(0).getBooking().getProfessionalsRequired(), team.size());
+            assertEquals(1, team.stream().map(detail -> detail.getCleaningProfessional().getVehicle().getId()).distinct().count());
+        });
+
+        Map<Long, List<Booking>> bookingsByProfessional = details.stream()
+                .collect(Collectors.groupingBy(detail -> detail.getCleaningProfessional().getId(),
+                        Collectors.mapping(BookingDetail::getBooking, Collectors.toList())));
+        bookingsByProfessional.values().forEach(bookings -> {
+            bookings.sort(Comparator.comparing(Booking::getStartTime));
+            for (int i = 1; i < bookings.size(); i++) {
+                LocalDateTime previousEnd = bookings.get(i - 1).getEndTime();
+                assertFalse(bookings.get(i).getStartTime().isBefore(previousEnd.plus(ProfessionalScheduleIndex.BREAK)),
+                        "Professional booked without a break: " + bookings.get(i - 1) + " and " + bookings.get(i));
+            }
+        });
+    }
+}
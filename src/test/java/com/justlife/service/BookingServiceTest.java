@@ -0,0 +1,401 @@
+package com.justlife.service;
+
+import com.justlife.dto.BookingAssignment;
+import com.justlife.dto.BookingBatchResult;
+import com.justlife.dto.BookingDetailCursor;
+import com.justlife.dto.BookingDetailPage;
+import com.justlife.model.Booking;
+import com.justlife.model.CleaningProfessional;
+import com.justlife.model.Vehicle;
+import com.justlife.repository.BookingDetailRepository;
+import com.justlife.repository.BookingRepository;
+import com.justlife.repository.CleaningProfessionalRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingDetailRepository bookingDetailRepository;
+
+    @Mock
+    private AvailabilityCheckService availabilityCheckService;
+
+    @Mock
+    private CleaningProfessionalRepository professionalRepository;
+
+    @Mock
+    private BookingJournal bookingJournal;
+
+    @Spy
+    private BookingLocks bookingLocks = new BookingLocks(4);
+
+    @Spy
+    private IdGenerationLimiter idGenerationLimiter = new IdGenerationLimiter(4, Duration.ofSeconds(1));
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private BookingService bookingService;
+
+    private Booking booking;
+    private Vehicle vehicle1;
+    private Vehicle vehicle2;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        vehicle1 = newVehicle(1L);
+        vehicle2 = newVehicle(2L);
+
+        booking = new Booking();
+        booking.setStartTime(LocalDateTime.of(2024, 7, 22, 10, 0));
+        booking.setDuration(2);
+        booking.setProfessionalsRequired(2);
+
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(availabilityCheckService.filterAvailable(anyList(), any(LocalDateTime.class), anyInt()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(availabilityCheckService.filterAvailable(anyList(), any(LocalDateTime.class), anyInt(), any(AvailabilityCheckService.Assignment.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testCreateBooking_PicksVehicleWithEnoughProfessionals() {
+        CleaningProfessional first = newProfessional(1L, vehicle1);
+        CleaningProfessional second = newProfessional(2L, vehicle2);
+        CleaningProfessional third = newProfessional(3L, vehicle2);
+        when(availabilityCheckService.findAllAvailable(booking.getStartTime(), 2)).thenReturn(List.of(first, second, third));
+
+        Booking savedBooking = bookingService.createBooking(booking);
+
+        assertEquals(LocalDateTime.of(2024, 7, 22, 12, 0), savedBooking.getEndTime());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CleaningProfessional>> assigned = ArgumentCaptor.forClass(List.class);
+        verify(availabilityCheckService).updateProfessionalsAvailability(assigned.capture(), eq(savedBooking));
+        assertEquals(List.of(second, third), assigned.getValue());
+    }
+
+    @Test
+    void testCreateBooking_NotEnoughProfessionals() {
+        when(availabilityCheckService.findAllAvailable(booking.getStartTime(), 2)).thenReturn(List.of(newProfessional(1L, vehicle1)));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> bookingService.createBooking(booking));
+
+        assertEquals("Not enough professionals available for the requested time", exception.getMessage());
+        verify(bookingRepository, never()).save(any(Booking.class));
+        assertEquals(1, rejections("not_enough_professionals"));
+        assertEquals(0, rejections("not_enough_on_same_vehicle"));
+    }
+
+    @Test
+    void testCreateBooking_NotEnoughProfessionalsFromSameVehicle() {
+        when(availabilityCheckService.findAllAvailable(booking.getStartTime(), 2))
+                .thenReturn(List.of(newProfessional(1L, vehicle1), newProfessional(2L, vehicle2), newProfessional(3L, null)));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> bookingService.createBooking(booking));
+
+        assertEquals("Not enough professionals from the same vehicle available for the requested time", exception.getMessage());
+        verify(bookingRepository, never()).save(any(Booking.class));
+        assertEquals(0, rejections("not_enough_professionals"));
+        assertEquals(1, rejections("not_enough_on_same_vehicle"));
+    }
+
+    @Test
+    void testCreateBooking_FallsBackToNextVehicleWhenTeamWasTaken() {
+        CleaningProfessional first = newProfessional(1L, vehicle1);
+        CleaningProfessional second = newProfessional(2L, vehicle1);
+        CleaningProfessional third = newProfessional(3L, vehicle2);
+        CleaningProfessional fourth = newProfessional(4L, vehicle2);
+        when(availabilityCheckService.findAllAvailable(booking.getStartTime(), 2)).thenReturn(List.of(first, second, third, fourth));
+        // The second professional of the first vehicle was booked concurrently
+        when(availabilityCheckService.filterAvailable(List.of(first, second), booking.getStartTime(), 2)).thenReturn(List.of(first));
+
+        Booking savedBooking = bookingService.createBooking(booking);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CleaningProfessional>> assigned = ArgumentCaptor.forClass(List.class);
+        verify(availabilityCheckService).updateProfessionalsAvailability(assigned.capture(), eq(savedBooking));
+        assertEquals(List.of(third, fourth), assigned.getValue());
+    }
+
+    @Test
+    void testUpdateBooking_KeepsCurrentTeamWhenStillFree() {
+        CleaningProfessional first = newProfessional(1L, vehicle1);
+        CleaningProfessional second = newProfessional(2L, vehicle1);
+        CleaningProfessional third = newProfessional(3L, vehicle2);
+        CleaningProfessional fourth = newProfessional(4L, vehicle2);
+        Booking existing = existingBooking();
+        when(professionalRepository.findByBookingId(5L)).thenReturn(List.of(third, fourth));
+        // The current team overlaps its own slots, so it is not among the available professionals
+        when(availabilityCheckService.findAllAvailable(booking.getStartTime(), 2)).thenReturn(List.of(first, second));
+
+        Booking savedBooking = bookingService.updateBooking(5L, booking);
+
+        assertEquals(booking.getStartTime(), existing.getStartTime());
+        ArgumentCaptor<AvailabilityCheckService.Assignment> current = ArgumentCaptor.forClass(AvailabilityCheckService.Assignment.class);
+        ArgumentCaptor<AvailabilityCheckService.Assignment> rescheduled = ArgumentCaptor.forClass(AvailabilityCheckService.Assignment.class);
+        verify(availabilityCheckService).rescheduleProfessionals(current.capture(), rescheduled.capture());
+        assertEquals(LocalDateTime.of(2024, 7, 22, 8, 0), current.getValue().booking().getStartTime());
+        assertEquals(List.of(third, fourth), current.getValue().professionals());
+        assertEquals(savedBooking, rescheduled.getValue().booking());
+        assertEquals(List.of(third, fourth), rescheduled.getValue().professionals());
+        verify(availabilityCheckService, never()).updateProfessionalsAvailability(anyList(), any(Booking.class));
+        verify(bookingJournal).appendAfterCommit(BookingJournal.Type.UPDATE, savedBooking.getId(), savedBooking.getStartTime(),
+                savedBooking.getEndTime(), List.of(3L, 4L));
+    }
+
+    @Test
+    void testUpdateBooking_CompletesCurrentTeamFromSameVehicle() {
+        CleaningProfessional first = newProfessional(1L, vehicle1);
+        CleaningProfessional second = newProfessional(2L, vehicle1);
+        CleaningProfessional third = newProfessional(3L, vehicle2);
+        CleaningProfessional fourth = newProfessional(4L, vehicle2);
+        CleaningProfessional fifth = newProfessional(5L, vehicle2);
+        existingBooking();
+        when(professionalRepository.findByBookingId(5L)).thenReturn(List.of(third, fourth));
+        when(availabilityCheckService.findAllAvailable(booking.getStartTime(), 2)).thenReturn(List.of(first, second, fifth));
+        // The fourth professional has another booking at the new time
+        when(availabilityCheckService.filterAvailable(eq(List.of(third, fourth)), any(LocalDateTime.class), anyInt(),
+                any(AvailabilityCheckService.Assignment.class))).thenReturn(List.of(third));
+
+        bookingService.updateBooking(5L, booking);
+
+        ArgumentCaptor<AvailabilityCheckService.Assignment> rescheduled = ArgumentCaptor.forClass(AvailabilityCheckService.Assignment.class);
+        verify(availabilityCheckService).rescheduleProfessionals(any(AvailabilityCheckService.Assignment.class), rescheduled.capture());
+        assertEquals(List.of(third, fifth), rescheduled.getValue().professionals());
+    }
+
+    @Test
+    void testUpdateBooking_RejectsBookingUpdatedConcurrently() {
+        existingBooking();
+        Booking moved = newBooking(LocalDateTime.of(2024, 7, 22, 14, 0), 2);
+        moved.setEndTime(LocalDateTime.of(2024, 7, 22, 16, 0));
+        when(bookingRepository.lockById(5L)).thenReturn(Optional.of(moved));
+        when(professionalRepository.findByBookingId(5L)).thenReturn(List.of());
+        when(availabilityCheckService.findAllAvailable(booking.getStartTime(), 2))
+                .thenReturn(List.of(newProfessional(1L, vehicle1), newProfessional(2L, vehicle1)));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> bookingService.updateBooking(5L, booking));
+
+        assertEquals("Booking was updated concurrently, please retry", exception.getMessage());
+        verify(availabilityCheckService, never()).rescheduleProfessionals(any(), any());
+    }
+
+    @Test
+    void testCreateBooking_InvalidDuration() {
+        booking.setDuration(3);
+
+        assertThrows(IllegalArgumentException.class, () -> bookingService.createBooking(booking));
+    }
+
+    @Test
+    void testCreateBooking_StartTimeNotOnSlot() {
+        booking.setStartTime(booking.getStartTime().withMinute(40));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> bookingService.createBooking(booking));
+
+        assertEquals("Invalid booking start time. Must be on the hour or half hour.", exception.getMessage());
+    }
+
+    @Test
+    void testCreateBookings_SkipsProfessionalsBookedEarlierInBatch() {
+        CleaningProfessional first = newProfessional(1L, vehicle1);
+        CleaningProfessional second = newProfessional(2L, vehicle1);
+        CleaningProfessional third = newProfessional(3L, vehicle2);
+        CleaningProfessional fourth = newProfessional(4L, vehicle2);
+        when(professionalRepository.findAll()).thenReturn(List.of(first, second, third, fourth));
+
+        Booking overlapping = newBooking(LocalDateTime.of(2024, 7, 22, 11, 0), 2);
+        Booking taken = newBooking(LocalDateTime.of(2024, 7, 22, 12, 0), 2);
+        Booking invalid = newBooking(LocalDateTime.of(2024, 7, 22, 10, 0), 3);
+
+        List<BookingBatchResult> results = bookingService.createBookings(List.of(booking, overlapping, taken, invalid));
+
+        assertEquals(List.of(BookingBatchResult.Status.CREATED, BookingBatchResult.Status.CREATED,
+                BookingBatchResult.Status.REJECTED, BookingBatchResult.Status.REJECTED),
+                results.stream().map(BookingBatchResult::getStatus).toList());
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(BookingBatchResult::getIndex).toList());
+        assertEquals("Not enough professionals available for the requested time", results.get(2).getError());
+        assertEquals("Invalid booking duration. Must be 2 or 4 hours.", results.get(3).getError());
+        assertEquals(1, rejections("not_enough_professionals"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AvailabilityCheckService.Assignment>> assignments = ArgumentCaptor.forClass(List.class);
+        verify(availabilityCheckService).updateProfessionalsAvailability(assignments.capture());
+        assertEquals(List.of(List.of(first, second), List.of(third, fourth)),
+                assignments.getValue().stream().map(AvailabilityCheckService.Assignment::professionals).toList());
+        verify(bookingRepository).saveAll(List.of(booking, overlapping));
+        verify(professionalRepository).findAll();
+    }
+
+    @Test
+    void testCreateBookings_LocksVehiclesThatMayServeBatch() {
+        CleaningProfessional first = newProfessional(1L, vehicle1);
+        CleaningProfessional second = newProfessional(2L, vehicle1);
+        CleaningProfessional third = newProfessional(3L, vehicle2);
+        when(professionalRepository.findAll()).thenReturn(List.of(first, second, third));
+
+        bookingService.createBookings(List.of(booking));
+
+        verify(bookingLocks).forVehicles(Set.of(1L, 2L));
+    }
+
+    @Test
+    void testCreateBookings_SkipLockedPicksAgainWithoutUnclaimedProfessionals() {
+        ReflectionTestUtils.setField(bookingService, "allocationMode", AllocationMode.SKIP_LOCKED);
+        CleaningProfessional first = newProfessional(1L, vehicle1);
+        CleaningProfessional second = newProfessional(2L, vehicle1);
+        CleaningProfessional third = newProfessional(3L, vehicle2);
+        CleaningProfessional fourth = newProfessional(4L, vehicle2);
+        when(professionalRepository.findAll()).thenReturn(List.of(first, second, third, fourth));
+        when(professionalRepository.claimSkipLocked(1L)).thenReturn(Optional.of(1L));
+        when(professionalRepository.claimSkipLocked(2L)).thenReturn(Optional.empty());
+        when(professionalRepository.claimSkipLocked(3L)).thenReturn(Optional.of(3L));
+        when(professionalRepository.claimSkipLocked(4L)).thenReturn(Optional.of(4L));
+
+        List<BookingBatchResult> results = bookingService.createBookings(List.of(booking));
+
+        assertEquals(BookingBatchResult.Status.CREATED, results.get(0).getStatus());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AvailabilityCheckService.Assignment>> assignments = ArgumentCaptor.forClass(List.class);
+        verify(availabilityCheckService).updateProfessionalsAvailability(assignments.capture());
+        assertEquals(List.of(third, fourth), assignments.getValue().get(0).professionals());
+        verify(bookingLocks, never()).forVehicles(anyCollection());
+    }
+
+    @Test
+    void testCreateBookings_RejectsBatchWhenRetryCollidesAgain() {
+        when(professionalRepository.findAll()).thenReturn(List.of(newProfessional(1L, vehicle1), newProfessional(2L, vehicle1)));
+        when(bookingRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("Duplicate slot reservation"));
+
+        List<BookingBatchResult> results = bookingService.createBookings(List.of(booking, newBooking(LocalDateTime.of(2024, 7, 23, 10, 0), 2)));
+
+        assertEquals(List.of(BookingBatchResult.Status.REJECTED, BookingBatchResult.Status.REJECTED),
+                results.stream().map(BookingBatchResult::getStatus).toList());
+        assertEquals("Bookings were taken concurrently, please retry", results.get(0).getError());
+        verify(bookingRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void testGetBookingDetails_ReturnsCursorOfLastItemWhenMoreRemain() {
+        booking.setId(5L);
+        List<BookingAssignment> details = List.of(newAssignment(1L), newAssignment(2L), newAssignment(3L));
+        BookingDetailCursor after = new BookingDetailCursor(LocalDateTime.of(2024, 7, 21, 10, 0), 9L);
+        when(bookingDetailRepository.findPage(LocalDateTime.of(2024, 7, 22, 0, 0), LocalDateTime.of(2024, 7, 24, 0, 0),
+                1L, null, after, 3)).thenReturn(details);
+
+        BookingDetailPage page = bookingService.getBookingDetails(LocalDate.of(2024, 7, 22), LocalDate.of(2024, 7, 23),
+                1L, null, after.encode(), 2);
+
+        assertEquals(details.subList(0, 2), page.getItems());
+        assertEquals(new BookingDetailCursor(booking.getStartTime(), 2L), BookingDetailCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void testGetBookingDetails_LastPageHasNoCursor() {
+        when(bookingDetailRepository.findPage(null, null, null, 2L, null, 3)).thenReturn(List.of(newAssignment(1L)));
+
+        BookingDetailPage page = bookingService.getBookingDetails(null, null, null, 2L, null, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetBookingDetails_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> bookingService.getBookingDetails(null, null, null, null, "not-a-cursor", 2));
+    }
+
+    private BookingAssignment newAssignment(Long id) {
+        return new BookingAssignment(id, booking.getId(), booking.getStartTime(), booking.getStartTime().plusHours(2), 2, 1L, "John Doe", 1L);
+    }
+
+    private Booking existingBooking() {
+        Booking existing = newBooking(LocalDateTime.of(2024, 7, 22, 8, 0), 2);
+        existing.setId(5L);
+        existing.setEndTime(LocalDateTime.of(2024, 7, 22, 10, 0));
+        when(bookingRepository.findById(5L)).thenReturn(Optional.of(existing));
+        when(bookingRepository.lockById(5L)).thenReturn(Optional.of(copy(existing)));
+        return existing;
+    }
+
+    private static Booking copy(Booking booking) {
+        Booking copy = new Booking();
+        copy.setId(booking.getId());
+        copy.setStartTime(booking.getStartTime());
+        copy.setEndTime(booking.getEndTime());
+        copy.setDuration(booking.getDuration());
+        copy.setProfessionalsRequired(booking.getProfessionalsRequired());
+        return copy;
+    }
+
+    private Booking newBooking(LocalDateTime startTime, int duration) {
+        Booking newBooking = new Booking();
+        newBooking.setStartTime(startTime);
+        newBooking.setDuration(duration);
+        newBooking.setProfessionalsRequired(2);
+        return newBooking;
+    }
+
+    private static Vehicle newVehicle(Long id) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(id);
+        vehicle.setName("Vehicle " + id);
+        return vehicle;
+    }
+
+    private static CleaningProfessional newProfessional(Long id, Vehicle vehicle) {
+        CleaningProfessional professional = new CleaningProfessional();
+        professional.setId(id);
+        professional.setName("Professional " + id);
+        professional.setVehicle(vehicle);
+        return professional;
+    }
+
+    private double rejections(String reason) {
+        Counter counter = meterRegistry.find("justlife.booking.rejections").tag("reason", reason).counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
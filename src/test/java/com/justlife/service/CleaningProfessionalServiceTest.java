@@ -4,10 +4,13 @@ import com.justlife.model.CleaningProfessional;
 import com.justlife.repository.CleaningProfessionalRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +24,18 @@ class CleaningProfessionalServiceTest {
     @Mock
     private CleaningProfessionalRepository cleaningProfessionalRepository;
 
+    @Spy
+    private WeeklyShiftCalendar shiftCalendar = new WeeklyShiftCalendar();
+
+    @Mock
+    private AvailabilityCache availabilityCache;
+
+    @Mock
+    private ReadReplicaRouter readReplicaRouter;
+
+    @Spy
+    private IdGenerationLimiter idGenerationLimiter = new IdGenerationLimiter(4, Duration.ofSeconds(1));
+
     @InjectMocks
     private CleaningProfessionalService cleaningProfessionalService;
 
@@ -81,6 +96,10 @@ class CleaningProfessionalServiceTest {
         Optional<CleaningProfessional> result = cleaningProfessionalService.updateCleaningProfessional(1L, professional);
         assertTrue(result.isPresent());
         assertEquals(professional, result.get());
+        verify(availabilityCache).invalidateAll();
+        InOrder inOrder = inOrder(cleaningProfessionalRepository, shiftCalendar);
+        inOrder.verify(cleaningProfessionalRepository).save(professional);
+        inOrder.verify(shiftCalendar).evict(1L);
     }
 
     @Test
@@ -106,5 +125,6 @@ class CleaningProfessionalServiceTest {
 
         boolean result = cleaningProfessionalService.deleteCleaningProfessional(1L);
         assertFalse(result);
+        verify(availabilityCache, never()).invalidateAll();
     }
 }
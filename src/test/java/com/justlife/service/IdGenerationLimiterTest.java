@@ -0,0 +1,53 @@
+package com.justlife.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdGenerationLimiterTest {
+
+    @Test
+    void testRun_RefusesWriteWhenNoConnectionFreesUp() throws Exception {
+        IdGenerationLimiter limiter = new IdGenerationLimiter(2, Duration.ofMillis(50));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> holding = executor.submit(() -> limiter.run(() -> {
+                running.countDown();
+                await(release);
+                return "first";
+            }));
+            running.await();
+
+            IllegalStateException exception = assertThrows(IllegalStateException.class, () -> limiter.run(() -> "second"));
+
+            assertEquals("Too many concurrent writes, please retry", exception.getMessage());
+            release.countDown();
+            assertEquals("first", holding.get());
+            assertEquals("third", limiter.run(() -> "third"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testConstructor_RejectsPoolWithoutSpareConnection() {
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerationLimiter(1, Duration.ofSeconds(1)));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.justlife.service;
+
+import com.justlife.repository.BookingDetailRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProfessionalScheduleIndexTest {
+
+    @Mock
+    private BookingDetailRepository bookingDetailRepository;
+
+    @Mock
+    private BookingJournal bookingJournal;
+
+    @InjectMocks
+    private ProfessionalScheduleIndex scheduleIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        // Professional 1 is booked from 10:00 to 12:00
+        scheduleIndex.record(1L, at(10, 0), at(12, 0), List.of(1L));
+    }
+
+    @Test
+    void testIsFree_NoBookings() {
+        assertTrue(scheduleIndex.isFree(2L, at(10, 0), at(12, 0)));
+    }
+
+    @Test
+    void testIsFree_Overlapping() {
+        assertFalse(scheduleIndex.isFree(1L, at(11, 0), at(13, 0)));
+        assertFalse(scheduleIndex.isFree(1L, at(8, 0), at(14, 0)));
+    }
+
+    @Test
+    void testIsFree_WithinBreak() {
+        assertFalse(scheduleIndex.isFree(1L, at(12, 0), at(14, 0)));
+        assertFalse(scheduleIndex.isFree(1L, at(8, 0), at(10, 0)));
+    }
+
+    @Test
+    void testIsFree_RespectingBreak() {
+        assertTrue(scheduleIndex.isFree(1L, at(12, 30), at(14, 30)));
+        assertTrue(scheduleIndex.isFree(1L, at(7, 30), at(9, 30)));
+    }
+
+    @Test
+    void testIsFree_LongBookingStartingEarlier() {
+        scheduleIndex.record(2L, at(8, 0), at(12, 0), List.of(2L));
+        scheduleIndex.record(3L, at(12, 30), at(14, 30), List.of(2L));
+
+        assertFalse(scheduleIndex.isFree(2L, at(11, 0), at(11, 30)));
+        assertTrue(scheduleIndex.isFree(2L, at(15, 0), at(17, 0)));
+    }
+
+    @Test
+    void testRecord_MovesProfessionalsStayingOnBooking() {
+        scheduleIndex.record(1L, at(16, 0), at(18, 0), List.of(1L, 2L));
+
+        assertTrue(scheduleIndex.isFree(1L, at(10, 0), at(12, 0)));
+        assertFalse(scheduleIndex.isFree(1L, at(16, 0), at(18, 0)));
+        assertFalse(scheduleIndex.isFree(2L, at(16, 0), at(18, 0)));
+    }
+
+    @Test
+    void testRecord_FreesProfessionalsLeavingBooking() {
+        scheduleIndex.record(1L, at(16, 0), at(18, 0), List.of(2L));
+
+        assertTrue(scheduleIndex.isFree(1L, at(10, 0), at(12, 0)));
+        assertTrue(scheduleIndex.isFree(1L, at(16, 0), at(18, 0)));
+        assertFalse(scheduleIndex.isFree(2L, at(16, 0), at(18, 0)));
+    }
+
+    @Test
+    void testIsFree_IgnoringBooking() {
+        scheduleIndex.record(2L, at(14, 0), at(16, 0), List.of(1L));
+
+        assertTrue(scheduleIndex.isFree(1L, at(11, 0), at(13, 0), 1L));
+        assertFalse(scheduleIndex.isFree(1L, at(12, 0), at(14, 0), 1L));
+        assertFalse(scheduleIndex.isFree(1L, at(11, 0), at(13, 0), 2L));
+    }
+
+    @Test
+    void testBlockedSlots_IncludesBreaks() {
+        // A booking of the previous evening blocks the first slot of the day with its break
+        scheduleIndex.record(2L, LocalDateTime.of(2024, 7, 21, 22, 0), LocalDateTime.of(2024, 7, 22, 0, 0), List.of(1L));
+
+        // 00:00-00:30, then 09:30-12:30
+        long expected = 0b1L | 0b111111L << 19;
+        assertEquals(expected, scheduleIndex.blockedSlots(1L, LocalDate.of(2024, 7, 22)));
+        assertEquals(0L, scheduleIndex.blockedSlots(2L, LocalDate.of(2024, 7, 22)));
+    }
+
+    @Test
+    void testBlockedSlots_FromReservations() {
+        LocalDate day = LocalDate.of(2024, 7, 22);
+        long reserved = AvailabilityCheckService.reservedSlotsByDay(LocalDateTime.of(2024, 7, 21, 22, 0), day.atStartOfDay()).get(day)
+                | AvailabilityCheckService.reservedSlotsByDay(at(10, 0), at(12, 0)).get(day);
+
+        assertEquals(0b1L | 0b111111L << 19, ProfessionalScheduleIndex.blockedSlots(reserved, 0));
+        // A booking at midnight needs the last slot of the day for the break before it
+        assertEquals(1L << 47, ProfessionalScheduleIndex.blockedSlots(0, 0b1111L));
+    }
+
+    @Test
+    void testLoad() {
+        BookingDetailRepository.ScheduledBooking scheduled = mock(BookingDetailRepository.ScheduledBooking.class);
+        when(scheduled.getProfessionalId()).thenReturn(3L);
+        when(scheduled.getBookingId()).thenReturn(2L);
+        when(scheduled.getStartTime()).thenReturn(at(14, 0));
+        when(scheduled.getEndTime()).thenReturn(at(18, 0));
+        when(bookingDetailRepository.findAllScheduledBookings()).thenReturn(List.of(scheduled));
+
+        scheduleIndex.load();
+
+        assertFalse(scheduleIndex.isFree(3L, at(15, 0), at(17, 0)));
+    }
+
+    @Test
+    void testLoad_FromJournal() {
+        when(bookingJournal.hasEntries()).thenReturn(true);
+        when(bookingJournal.replay(any())).thenAnswer(invocation -> {
+            Consumer<BookingJournal.Entry> consumer = invocation.getArgument(0);
+            consumer.accept(new BookingJournal.Entry(1, BookingJournal.Type.CREATE, 2L, at(14, 0), at(16, 0), List.of(3L, 4L)));
+            // Moved later, the last record of a booking replaces the earlier ones
+            consumer.accept(new BookingJournal.Entry(2, BookingJournal.Type.UPDATE, 2L, at(16, 0), at(18, 0), List.of(3L)));
+            return 2;
+        });
+
+        scheduleIndex.load();
+
+        assertTrue(scheduleIndex.isFree(3L, at(13, 0), at(15, 0)));
+        assertFalse(scheduleIndex.isFree(3L, at(16, 0), at(18, 0)));
+        assertTrue(scheduleIndex.isFree(4L, at(16, 0), at(18, 0)));
+        verify(bookingDetailRepository, never()).findAllScheduledBookings();
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return LocalDateTime.of(2024, 7, 22, hour, minute);
+    }
+}
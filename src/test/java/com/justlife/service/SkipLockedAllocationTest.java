@@ -0,0 +1,68 @@
+package com.justlife.service;
+
+import com.justlife.model.Booking;
+import com.justlife.model.BookingDetail;
+import com.justlife.repository.BookingDetailRepository;
+import com.justlife.repository.CleaningProfessionalRepository;
+import com.justlife.repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:skip-locked-allocation;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "justlife.booking.allocation-mode=skip-locked"
+})
+class SkipLockedAllocationTest {
+
+    private static final int VEHICLES = 5;
+    private static final int PROFESSIONALS_PER_VEHICLE = 4;
+    private static final int REQUESTS = 200;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private CleaningProfessionalRepository professionalRepository;
+
+    @Autowired
+    private BookingDetailRepository bookingDetailRepository;
+
+    @BeforeEach
+    void setUp() {
+        TestFleet.create(vehicleRepository, professionalRepository, VEHICLES, PROFESSIONALS_PER_VEHICLE);
+    }
+
+    @Test
+    void testCreateBooking_SpreadsContendedSlotAcrossFreeProfessionals() throws Exception {
+        List<Booking> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            Booking booking = new Booking();
+            booking.setStartTime(LocalDateTime.of(2030, 1, 7, 10, 0));
+            booking.setDuration(2);
+            booking.setProfessionalsRequired(1);
+            requests.add(booking);
+        }
+
+        int succeeded = TestFleet.createConcurrently(bookingService, requests, THREADS);
+
+        // Every professional can take the slot exactly once, so a perfect allocator books all of them
+        int capacity = VEHICLES * PROFESSIONALS_PER_VEHICLE;
+
+        List<BookingDetail> details = bookingDetailRepository.findAll();
+        assertEquals(succeeded, details.size());
+        assertEquals(succeeded, details.stream().map(detail -> detail.getCleaningProfessional().getId()).distinct().count());
+        assertEquals(capacity, succeeded, succeeded + " of " + REQUESTS + " contending bookings succeeded");
+    }
+}
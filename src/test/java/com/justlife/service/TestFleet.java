@@ -0,0 +1,78 @@
+package com.justlife.service;
+
+import com.justlife.model.Booking;
+import com.justlife.model.CleaningProfessional;
+import com.justlife.model.Vehicle;
+import com.justlife.repository.CleaningProfessionalRepository;
+import com.justlife.repository.VehicleRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fleet of vehicles with their professionals for the tests booking against a database, and a harness creating
+ * bookings on it all at once.
+ */
+final class TestFleet {
+
+    private TestFleet() {
+    }
+
+    /**
+     * Saves vehicles named "Vehicle 1" on, each with professionals named "Professional v-p".
+     */
+    static void create(VehicleRepository vehicleRepository, CleaningProfessionalRepository professionalRepository,
+                       int vehicles, int professionalsPerVehicle) {
+        for (int v = 1; v <= vehicles; v++) {
+            Vehicle vehicle = new Vehicle();
+            vehicle.setName("Vehicle " + v);
+            vehicleRepository.save(vehicle);
+
+            for (int p = 1; p <= professionalsPerVehicle; p++) {
+                CleaningProfessional professional = new CleaningProfessional();
+                professional.setName("Professional " + v + "-" + p);
+                professional.setVehicle(vehicle);
+                professionalRepository.save(professional);
+            }
+        }
+    }
+
+    /**
+     * Creates the bookings from the given number of threads, released together.
+     *
+     * @return the number of bookings created, the others were rejected for lack of professionals
+     */
+    static int createConcurrently(BookingService bookingService, List<Booking> bookings, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Booking booking : bookings) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    bookingService.createBooking(booking);
+                    return true;
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        try {
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return succeeded;
+    }
+}
@@ -21,6 +21,12 @@ class VehicleServiceTest {
     @Mock
     private VehicleRepository vehicleRepository;
 
+    @Mock
+    private AvailabilityCache availabilityCache;
+
+    @Mock
+    private ReadReplicaRouter readReplicaRouter;
+
     @InjectMocks
     private VehicleService vehicleService;
 
@@ -81,6 +87,7 @@ class VehicleServiceTest {
         Optional<Vehicle> result = vehicleService.updateVehicle(1L, vehicle);
         assertTrue(result.isPresent());
         assertEquals(vehicle, result.get());
+        verify(availabilityCache).invalidateAll();
     }
 
     @Test
@@ -0,0 +1,132 @@
+package com.justlife.service;
+
+import com.justlife.model.CleaningProfessional;
+import com.justlife.model.WorkingShift;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeeklyShiftCalendarTest {
+
+    private WeeklyShiftCalendar shiftCalendar;
+    private CleaningProfessional professional;
+
+    @BeforeEach
+    void setUp() {
+        shiftCalendar = new WeeklyShiftCalendar();
+
+        professional = new CleaningProfessional();
+        professional.setId(1L);
+        professional.setName("John Doe");
+    }
+
+    @Test
+    void testIsWorking_LegacyWorkingHours() {
+        assertTrue(shiftCalendar.isWorking(professional, at(22, 8, 0), at(22, 10, 0)));
+        assertTrue(shiftCalendar.isWorking(professional, at(22, 20, 0), at(22, 22, 0)));
+        assertFalse(shiftCalendar.isWorking(professional, at(22, 7, 30), at(22, 9, 30)));
+        assertFalse(shiftCalendar.isWorking(professional, at(22, 21, 0), at(22, 23, 0)));
+    }
+
+    @Test
+    void testIsWorking_LegacyFriday() {
+        assertFalse(shiftCalendar.isWorking(professional, at(26, 10, 0), at(26, 12, 0)));
+
+        professional.setWorkingOnFridays(true);
+        shiftCalendar.evict(professional.getId());
+
+        assertTrue(shiftCalendar.isWorking(professional, at(26, 10, 0), at(26, 12, 0)));
+    }
+
+    @Test
+    void testIsWorking_Shifts() {
+        professional.getShifts().add(new WorkingShift(DayOfWeek.MONDAY, 6 * 60, 12 * 60));
+        professional.getShifts().add(new WorkingShift(DayOfWeek.MONDAY, 12 * 60, 14 * 60));
+        professional.getShifts().add(new WorkingShift(DayOfWeek.SUNDAY, 20 * 60, 24 * 60));
+
+        assertTrue(shiftCalendar.isWorking(professional, at(22, 6, 0), at(22, 10, 0)));
+        assertTrue(shiftCalendar.isWorking(professional, at(22, 10, 0), at(22, 14, 0)));
+        assertFalse(shiftCalendar.isWorking(professional, at(22, 13, 0), at(22, 15, 0)));
+        assertFalse(shiftCalendar.isWorking(professional, at(23, 10, 0), at(23, 12, 0)));
+        assertTrue(shiftCalendar.isWorking(professional, at(28, 20, 0), at(29, 0, 0)));
+    }
+
+    @Test
+    void testIsWorking_UnalignedTimes() {
+        professional.getShifts().add(new WorkingShift(DayOfWeek.MONDAY, 8 * 60 + 15, 12 * 60));
+
+        assertTrue(shiftCalendar.isWorking(professional, at(22, 8, 15), at(22, 10, 15)));
+        assertFalse(shiftCalendar.isWorking(professional, at(22, 8, 0), at(22, 10, 0)));
+        assertFalse(shiftCalendar.isWorking(professional, at(22, 8, 14), at(22, 10, 14)));
+        assertTrue(shiftCalendar.isWorking(professional, at(22, 8, 30), at(22, 10, 30)));
+        assertTrue(shiftCalendar.isWorking(professional, at(22, 9, 45), at(22, 11, 45)));
+        assertFalse(shiftCalendar.isWorking(professional, at(22, 10, 15), at(22, 12, 15)));
+        // Only the slots entirely within the shift are offered as working slots
+        assertEquals(0b1111111L << 17, shiftCalendar.workingSlots(professional, DayOfWeek.MONDAY));
+    }
+
+    @Test
+    void testIsWorking_UnalignedAdjacentShifts() {
+        professional.getShifts().add(new WorkingShift(DayOfWeek.MONDAY, 8 * 60 + 15, 10 * 60 + 10));
+        professional.getShifts().add(new WorkingShift(DayOfWeek.MONDAY, 10 * 60 + 10, 12 * 60));
+
+        assertTrue(shiftCalendar.isWorking(professional, at(22, 8, 15), at(22, 12, 0)));
+    }
+
+    @Test
+    void testEvict_RecompilesChangedShifts() {
+        professional.getShifts().add(new WorkingShift(DayOfWeek.MONDAY, 8 * 60, 12 * 60));
+        assertTrue(shiftCalendar.isWorking(professional, at(22, 8, 0), at(22, 10, 0)));
+
+        professional.getShifts().set(0, new WorkingShift(DayOfWeek.MONDAY, 14 * 60, 18 * 60));
+        // Compiled once, until evicted
+        assertTrue(shiftCalendar.isWorking(professional, at(22, 8, 0), at(22, 10, 0)));
+        shiftCalendar.evict(professional.getId());
+
+        assertFalse(shiftCalendar.isWorking(professional, at(22, 8, 0), at(22, 10, 0)));
+        assertTrue(shiftCalendar.isWorking(professional, at(22, 14, 0), at(22, 16, 0)));
+    }
+
+    @Test
+    void testIsWorking_PastMidnight() {
+        assertFalse(shiftCalendar.isWorking(professional, at(22, 21, 0), at(23, 1, 0)));
+    }
+
+    @Test
+    void testTouchedSlots_ClipsToDay() {
+        LocalDateTime startOfDay = at(22, 0, 0);
+
+        assertEquals(0b11L << 18, WeeklyShiftCalendar.touchedSlots(startOfDay, at(22, 9, 15), at(22, 9, 45)));
+        assertEquals(0b111L, WeeklyShiftCalendar.touchedSlots(startOfDay, at(21, 23, 0), at(22, 1, 15)));
+        assertEquals(1L << 47, WeeklyShiftCalendar.touchedSlots(startOfDay, at(22, 23, 45), at(23, 2, 0)));
+        assertEquals(0L, WeeklyShiftCalendar.touchedSlots(startOfDay, at(23, 0, 0), at(23, 2, 0)));
+    }
+
+    @Test
+    void testStartSlots() {
+        long slots = 0b0111_1011L;
+
+        assertEquals(slots, WeeklyShiftCalendar.startSlots(slots, 1));
+        assertEquals(0b0011_1001L, WeeklyShiftCalendar.startSlots(slots, 2));
+        assertEquals(0b0001_1000L, WeeklyShiftCalendar.startSlots(slots, 3));
+        assertEquals(0L, WeeklyShiftCalendar.startSlots(slots, 5));
+    }
+
+    @Test
+    void testValidate() {
+        assertThrows(IllegalArgumentException.class, () -> WeeklyShiftCalendar.validate(new WorkingShift(DayOfWeek.MONDAY, 600, 600)));
+        assertThrows(IllegalArgumentException.class, () -> WeeklyShiftCalendar.validate(new WorkingShift(DayOfWeek.MONDAY, 600, 1500)));
+        assertThrows(IllegalArgumentException.class, () -> WeeklyShiftCalendar.validate(new WorkingShift(null, 600, 720)));
+    }
+
+    private static LocalDateTime at(int day, int hour, int minute) {
+        return LocalDateTime.of(2024, 7, day, hour, minute);
+    }
+}